@@ -0,0 +1,149 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+/**
+ * The {@code ContestReader} class reads the events of a contest in the
+ * text format of the problem: the number of events, then one line per
+ * event, {@code 1 x} for a robot at {@code x} or {@code 2 x c} for a store
+ * at {@code x} with {@code c} tenges.
+ * <p>
+ * Numbers are parsed straight from the bytes of a buffered NIO channel,
+ * without creating strings or boxed values, and events are handed out one
+ * at a time, so a contest can be solved while it is being read without
+ * ever holding it all in memory.
+ * </p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class ContestReader implements Closeable
+{
+    private ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private int limit;
+
+    /**
+     * Creates a {@code ContestReader} over a channel.
+     *
+     * @param channel the channel the contest is read from.
+     */
+    public ContestReader(ReadableByteChannel channel){
+        this.channel = channel;
+        buffer = ByteBuffer.allocate(1 << 16);
+        bytes = buffer.array();
+    }
+
+    /**
+     * Creates a {@code ContestReader} over a stream, such as
+     * {@code System.in}.
+     *
+     * @param stream the stream the contest is read from.
+     */
+    public ContestReader(InputStream stream){
+        this(Channels.newChannel(stream));
+    }
+
+    /**
+     * Opens a {@code ContestReader} over a file.
+     *
+     * @param file the file the contest is read from.
+     * @return a reader positioned at the start of the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static ContestReader open(Path file) throws IOException{
+        return new ContestReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next integer.
+     *
+     * @return the value of the integer.
+     * @throws EOFException if the input ends before the integer.
+     * @throws IOException  if the input cannot be read or is not an integer.
+     */
+    public int nextInt() throws IOException{
+        int next = skipSpaces();
+        if (next < 0) throw new EOFException("expected a number at the end of the input");
+        return parseInt(next);
+    }
+
+    /**
+     * Reads the next event into a caller-supplied array, so reading an
+     * event allocates nothing.
+     *
+     * @param event an array of at least 3 elements that receives the type,
+     *              the location and, for stores, the tenges of the event.
+     * @return {@code true} if an event was read, {@code false} if the input ended.
+     * @throws IOException if the input cannot be read or is not an event.
+     */
+    public boolean nextEvent(int[] event) throws IOException{
+        int next = skipSpaces();
+        if (next < 0) return false;
+        int type = parseInt(next);
+        if (type != 1 && type != 2) throw new IOException("unknown event type " + type);
+        event[0] = type;
+        event[1] = nextInt();
+        event[2] = type == 2 ? nextInt() : 0;
+        return true;
+    }
+
+    /**
+     * Closes the underlying channel.
+     *
+     * @throws IOException if the channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException{
+        channel.close();
+    }
+
+    /**
+     * Parses an integer whose first byte has already been read.
+     */
+    private int parseInt(int first) throws IOException{
+        boolean negative = first == '-';
+        int next = negative ? read() : first;
+        if (next < '0' || next > '9') throw new IOException("expected a number");
+        long value = 0;
+        while (next >= '0' && next <= '9'){
+            value = value * 10 + (next - '0');
+            if (value > Integer.MAX_VALUE + 1L) throw new IOException("number too large");
+            next = read();
+        }
+        if (next > ' ') throw new IOException("expected a number");
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw new IOException("number too large");
+        return (int) value;
+    }
+
+    /**
+     * Returns the first byte that is not white space, or -1 at the end.
+     */
+    private int skipSpaces() throws IOException{
+        int next = read();
+        while (next >= 0 && next <= ' '){
+            next = read();
+        }
+        return next;
+    }
+
+    /**
+     * Returns the next byte of the input, or -1 at the end.
+     */
+    private int read() throws IOException{
+        if (position == limit){
+            buffer.clear();
+            int count = channel.read(buffer);
+            while (count == 0){
+                count = channel.read(buffer);
+            }
+            if (count < 0) return -1;
+            position = 0;
+            limit = count;
+        }
+        return bytes[position++] & 0xFF;
+    }
+}
@@ -0,0 +1,204 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+/**
+ * The {@code EventLog} class is a contest stored in a compact binary file
+ * and read through a read-only memory mapping.
+ * <p>
+ * The file starts with a header of four integers: the magic number
+ * {@code 0x534C4B31} ({@code "SLK1"}), the number of events, the largest
+ * location and a reserved zero. Each event follows as three integers: its
+ * type ({@code 1} for a robot, {@code 2} for a store), its location and
+ * its tenges ({@code 0} for robots). Every integer is 4 bytes, big-endian,
+ * so event {@code i} always starts at byte {@code 16 + 12 * i}.
+ * </p>
+ * <p>
+ * Events are read in place from the mapped pages, with no parsing and no
+ * copy of the file on the heap. A log never changes once opened and only
+ * uses absolute reads, so a single log can be shared by any number of
+ * solver threads.
+ * </p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public final class EventLog
+{
+    private static final int MAGIC = 0x534C4B31;
+    private static final int HEADER = 16;
+    private static final int EVENT = 12;
+    private final ByteBuffer events;
+    private final int size;
+    private final int maxLocation;
+
+    /**
+     * Creates a log over a mapped file whose header was already checked.
+     */
+    private EventLog(ByteBuffer events, int size, int maxLocation){
+        this.events = events;
+        this.size = size;
+        this.maxLocation = maxLocation;
+    }
+
+    /**
+     * Maps a binary event log into memory.
+     * <p>
+     * A single mapping holds at most {@link Integer#MAX_VALUE} bytes, so 
+     * larger logs, of about 178 million events or more, are rejected. 
+     * Events are not read here, so opening costs the same for any size; a 
+     * corrupt event is reported when it is read.
+     * </p>
+     *
+     * @param file the file written by {@link #write(ContestReader, Path)}.
+     * @return the log of the file.
+     * @throws IOException if the file cannot be mapped, is too large, or is 
+     *                     not an event log.
+     */
+    public static EventLog open(Path file) throws IOException{
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            long length = channel.size();
+            if (length < HEADER) throw new IOException(file + " is not an event log");
+            if (length > Integer.MAX_VALUE) throw new IOException(file + " is too large to map");
+            ByteBuffer events = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int size = events.getInt(4);
+            if (events.getInt(0) != MAGIC || size < 0 || length != HEADER + (long) EVENT * size){
+                throw new IOException(file + " is not an event log");
+            }
+            return new EventLog(events, size, events.getInt(8));
+        }
+    }
+
+    /**
+     * Converts a contest in the text format into a binary event log.
+     *
+     * @param input the contest, starting with its number of events.
+     * @param file  the file to write; it is replaced if it exists.
+     * @throws EOFException if the contest ends before its number of events.
+     * @throws IOException  if the contest cannot be read or is malformed,
+     *                      or the file cannot be written.
+     */
+    public static void write(ContestReader input, Path file) throws IOException{
+        int count = input.nextInt();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer buffer = ByteBuffer.allocate(EVENT << 12);
+            int[] event = new int[3];
+            int size = 0;
+            int maxLocation = 0;
+            channel.position(HEADER);
+            while (size < count){
+                if (!input.nextEvent(event)){
+                    throw new EOFException("expected " + count + " events, found " + size);
+                }
+                if (size == 0 || event[1] > maxLocation) maxLocation = event[1];
+                buffer.putInt(event[0]).putInt(event[1]).putInt(event[2]);
+                size++;
+                if (!buffer.hasRemaining()) drain(buffer, channel);
+            }
+            drain(buffer, channel);
+            buffer.putInt(MAGIC).putInt(size).putInt(maxLocation).putInt(0);
+            buffer.flip();
+            for (long at = 0; buffer.hasRemaining(); ){
+                at += channel.write(buffer, at);
+            }
+        }
+    }
+
+    /**
+     * Writes everything in a buffer to a channel and empties the buffer.
+     */
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException{
+        buffer.flip();
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of events of the log.
+     *
+     * @return the number of days of the contest.
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Returns the largest location among the events of the log.
+     *
+     * @return the length a road needs to hold every event.
+     */
+    public int getMaxLocation(){
+        return maxLocation;
+    }
+
+    /**
+     * Returns the type of an event.
+     *
+     * @param day the index of the event, starting at 0.
+     * @return {@code 1} for a robot or {@code 2} for a store.
+     * @throws UncheckedIOException if the event has any other type, so the 
+     *                              file is not a valid event log.
+     */
+    public int getType(int day){
+        int type = events.getInt(HEADER + EVENT * day);
+        if (type != 1 && type != 2){
+            throw new UncheckedIOException(new IOException("event " + day + " has unknown type " + type));
+        }
+        return type;
+    }
+
+    /**
+     * Returns the location of an event.
+     *
+     * @param day the index of the event, starting at 0.
+     * @return the location of the robot or store.
+     */
+    public int getLocation(int day){
+        return events.getInt(HEADER + EVENT * day + 4);
+    }
+
+    /**
+     * Returns the tenges of an event.
+     *
+     * @param day the index of the event, starting at 0.
+     * @return the tenges of the store, or {@code 0} for a robot.
+     */
+    public int getTenges(int day){
+        return events.getInt(HEADER + EVENT * day + 8);
+    }
+
+    /**
+     * Returns the location of every event.
+     *
+     * @return a new array with the locations in event order.
+     */
+    public int[] getLocations(){
+        int[] locations = new int[size];
+        for (int i = 0; i < size; i++){
+            locations[i] = getLocation(i);
+        }
+        return locations;
+    }
+
+    /**
+     * Converts the text contest named by the first argument, or the one in
+     * the standard input when only one argument is given, into the binary
+     * log named by the last argument.
+     *
+     * @param args an optional input file name and the output file name.
+     * @throws IOException if the contest cannot be read or the log written.
+     */
+    public static void main(String[] args) throws IOException{
+        if (args.length == 0){
+            System.err.println("usage: EventLog [contest.txt] contest.bin");
+            return;
+        }
+        try (ContestReader input = args.length > 1 ? ContestReader.open(Paths.get(args[0]))
+                                                   : new ContestReader(System.in)){
+            write(input, Paths.get(args[args.length - 1]));
+        }
+    }
+}
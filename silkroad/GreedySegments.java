@@ -0,0 +1,427 @@
+import java.util.*;
+/**
+ * The {@code GreedySegments} class keeps the profit of the greedy movement
+ * of {@link SilkRoad#moveRobots()} up to date while robots and stores keep
+ * arriving, without moving and rebooting the whole road every day.
+ *
+ * <p>The path of every robot is kept: the stores it moves to, found with
+ * the same scans as {@link SilkRoad#moveRobots()} over {@link MaxIndex}es
+ * of the stores. A store at {@code x} with {@code t} tenges only attracts
+ * robots between {@code x - t + 1} and {@code x + t - 1}, as the segments
+ * of {@link SilkRoad#moveRobots(java.util.concurrent.ForkJoinPool)} rely
+ * on, so an event only changes a few steps of the robots around it:</p>
+ * <ul>
+ *   <li>a store that becomes available, new or given back, changes the
+ *       step of the first robot after it whose rightward scan passes it
+ *       within reach, or the jump of the first one whose leftward scan
+ *       would reach it first;</li>
+ *   <li>a store a robot takes from a robot after it changes the step of
+ *       that robot onto the store;</li>
+ *   <li>a new robot hides the store under it from the robots before it,
+ *       which changes the step of the one that had collected it.</li>
+ * </ul>
+ * <p>Changed robots are replanned in location order, and only from their
+ * changed steps: once a new step lands on a store of the old path, the
+ * old path is kept up to the next changed step. Stores collected by a
+ * robot before the one being planned, or under a robot that has not moved
+ * yet, are skipped once and hidden until the event is done. An event costs
+ * O((m + s) log n) for the m steps it changes and the s stores skipped,
+ * instead of a plan of the whole segment.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class GreedySegments
+{
+    private static final int JUMP = Integer.MIN_VALUE;
+    private static final int START = -1;
+    private int[] coordinates;
+    private int[] tenges;
+    private int[] collector;
+    private int[] owner;
+    private boolean[] robot;
+    private TreeSet<Integer>[] paths;
+    private MaxIndex reachLeft;
+    private MaxIndex reachRight;
+    private MaxIndex heldLeft;
+    private MaxIndex heldRight;
+    private MaxIndex scanOwner;
+    private MaxIndex leftEnd;
+    private TreeMap<Integer, TreeSet<Integer>> changed;
+    private HashMap<Integer, List<Integer>> given;
+    private TreeSet<Integer> hiddenTaken;
+    private List<Integer> hiddenHeld;
+    private List<Integer> hiddenOwners;
+    private int current;
+    private long profit;
+
+    /**
+     * Creates an empty {@code GreedySegments} for a sparse road.
+     *
+     * @param length    the length of the road.
+     * @param locations the locations robots and stores may be placed at.
+     */
+    @SuppressWarnings("unchecked")
+    public GreedySegments(int length, int[] locations){
+        coordinates = SilkRoad.compress(locations, length);
+        int size = coordinates.length;
+        tenges = new int[size];
+        collector = new int[size];
+        owner = new int[size];
+        Arrays.fill(collector, -1);
+        Arrays.fill(owner, -1);
+        robot = new boolean[size];
+        paths = new TreeSet[size];
+        reachLeft = new MaxIndex();
+        reachRight = new MaxIndex();
+        heldLeft = new MaxIndex();
+        heldRight = new MaxIndex();
+        scanOwner = new MaxIndex();
+        leftEnd = new MaxIndex();
+        for (MaxIndex index: new MaxIndex[]{reachLeft, reachRight, heldLeft, heldRight, scanOwner, leftEnd}){
+            index.reset(size);
+        }
+        changed = new TreeMap<>();
+        given = new HashMap<>();
+        hiddenTaken = new TreeSet<>();
+        hiddenHeld = new ArrayList<>();
+        hiddenOwners = new ArrayList<>();
+        current = -1;
+    }
+
+    /**
+     * Places a robot at the specified location, with the rules of
+     * {@link SilkRoad#pleaseRobot(int)}, and replans the robots it changes.
+     *
+     * @param location the location index on the road.
+     */
+    public void pleaseRobot(int location){
+        int rank = rank(location);
+        if (rank < 0 || robot[rank]) return;
+        robot[rank] = true;
+        paths[rank] = new TreeSet<>();
+        change(rank, JUMP);
+        int before = collector[rank];
+        if (before >= 0 && before < rank) release(before, rank);
+        replan();
+    }
+
+    /**
+     * Places a store at the specified location with an amount of tenges,
+     * with the rules of {@link SilkRoad#pleaseStore(int, int)}, and replans
+     * the robots it changes.
+     *
+     * @param location the location index on the road.
+     * @param tenges   the tenges of the store.
+     */
+    public void pleaseStore(int location, int tenges){
+        int rank = rank(location);
+        if (rank < 0 || location <= 1) return;
+        if (collector[rank] >= 0) release(collector[rank], rank);
+        this.tenges[rank] = tenges;
+        refresh(rank);
+        if (tenges > 0){
+            if (robot[rank]){
+                change(rank, stepBefore(rank, rank));
+                give(rank, rank);
+            } else reach(rank);
+        }
+        replan();
+    }
+
+    /**
+     * Returns the profit the greedy movement makes with the robots and
+     * stores placed so far.
+     *
+     * @return the profit of {@link SilkRoad#moveRobots()} on the rebooted road.
+     */
+    public long profit(){
+        return profit;
+    }
+
+    /**
+     * Replans the changed robots in location order, then shows again the
+     * stores and scans hidden meanwhile.
+     */
+    private void replan(){
+        while (!changed.isEmpty()){
+            Map.Entry<Integer, TreeSet<Integer>> next = changed.pollFirstEntry();
+            current = next.getKey();
+            for (Iterator<Integer> it = hiddenTaken.headSet(current, true).iterator(); it.hasNext(); ){
+                int store = it.next();
+                it.remove();
+                refresh(store);
+            }
+            plan(current, next.getValue());
+            List<Integer> stores = given.remove(current);
+            if (stores == null) continue;
+            for (int store: stores){
+                if (tenges[store] > 0 && collector[store] < 0) reach(store);
+            }
+        }
+        current = -1;
+        for (int store: hiddenTaken) refresh(store);
+        for (int store: hiddenHeld) refresh(store);
+        for (int position: hiddenOwners){
+            scanOwner.set(position, owner[position] >= 0 ? -owner[position] : Long.MIN_VALUE);
+        }
+        hiddenTaken.clear();
+        hiddenHeld.clear();
+        hiddenOwners.clear();
+    }
+
+    /**
+     * Marks a step of a robot to be planned again: its jump, its first
+     * step from where it stands, or its step from one of its stores.
+     */
+    private void change(int robot, int step){
+        changed.computeIfAbsent(robot, k -> new TreeSet<>()).add(step);
+    }
+
+    /**
+     * Takes a store out of the path of its collector, and marks the step
+     * of the collector onto it to be planned again.
+     */
+    private void release(int robot, int store){
+        change(robot, stepBefore(robot, store));
+        drop(robot, store);
+    }
+
+    /**
+     * Keeps a store that a robot gave back, to find the robots after it
+     * that the store attracts once the robot is replanned.
+     */
+    private void give(int robot, int store){
+        given.computeIfAbsent(robot, k -> new ArrayList<>()).add(store);
+    }
+
+    /**
+     * Marks the first robot after the current one whose plan an available
+     * store can change: the first whose rightward scan passes the store
+     * within reach, from the last place it stands before the store, or
+     * whose leftward scan would reach the store before its jump. The store
+     * is looked at again once that robot is replanned.
+     */
+    private void reach(int store){
+        int location = coordinates[store];
+        int from = ceiling((long) location - tenges[store] + 1);
+        int first = Integer.MAX_VALUE;
+        long found;
+        while ((found = scanOwner.max(from, store)) != Long.MIN_VALUE){
+            if (-found > current){
+                first = (int) -found;
+                break;
+            }
+            int position = scanOwner.firstAbove(from, store, found - 1);
+            scanOwner.set(position, Long.MIN_VALUE);
+            hiddenOwners.add(position);
+        }
+        int jumper = leftEnd.firstAbove(Math.max(store, current) + 1, ceiling((long) location + tenges[store]), location);
+        if (jumper < 0) jumper = Integer.MAX_VALUE;
+        if (first == Integer.MAX_VALUE && jumper == Integer.MAX_VALUE) return;
+        if (jumper <= first) change(jumper, JUMP);
+        if (first <= jumper) change(first, stepBefore(first, store));
+        give(Math.min(first, jumper), store);
+    }
+
+    /**
+     * Plans the changed steps of a robot, the way
+     * {@link SilkRoad#moveRobots()} scans: at most one jump to the first
+     * store to its left that attracts it, then every store to the right
+     * that attracts it from where it stands. A step that lands on a store
+     * of the old path joins it again, and the old path is followed up to
+     * its next changed step.
+     */
+    private void plan(int robot, TreeSet<Integer> steps){
+        TreeSet<Integer> path = paths[robot];
+        int position;
+        boolean fresh;
+        if (steps.contains(JUMP)){
+            int left = scan(reachLeft, heldLeft, 0, robot, coordinates[robot]);
+            int bound = left >= 0 ? left : robot;
+            while (!path.isEmpty() && path.first() < bound) drop(robot, path.first());
+            fresh = left < 0 || !path.contains(left);
+            if (left >= 0 && fresh) land(robot, left);
+            position = left >= 0 ? left : START;
+        } else {
+            position = START;
+            fresh = false;
+        }
+        while (true){
+            if (!fresh && !(steps.contains(position) && follows(robot, position))){
+                Integer step = steps.higher(position);
+                while (step != null && !follows(robot, step)) step = steps.higher(step);
+                if (step == null) break;
+                position = step;
+            }
+            int at = position == START ? robot : position;
+            int from = position == START ? robot : position + 1;
+            long threshold = -(long) coordinates[at];
+            int next = scan(reachRight, heldRight, from, coordinates.length, threshold);
+            if (collector[robot] == robot && robot >= from && (next < 0 || robot < next)
+                    && tenges[robot] - (long) coordinates[robot] > threshold){
+                next = robot;
+            }
+            int to = next < 0 ? coordinates.length : next;
+            for (Integer skipped = path.ceiling(from); skipped != null && skipped < to; skipped = path.ceiling(from)){
+                drop(robot, skipped);
+            }
+            if (next < 0) break;
+            fresh = !path.contains(next);
+            if (fresh) land(robot, next);
+            position = next;
+        }
+        boolean jumped = !path.isEmpty() && path.first() < robot;
+        leftEnd.set(robot, coordinates[jumped ? path.first() : robot]);
+        if (!jumped) own(robot, robot);
+        else if (owner[robot] == robot && !path.contains(robot)) own(robot, -1);
+    }
+
+    /**
+     * Tells whether a robot still takes a step: its first step from where
+     * it stands, if it does not jump, or its step from a store of its path.
+     */
+    private boolean follows(int robot, int step){
+        TreeSet<Integer> path = paths[robot];
+        if (step == START) return path.isEmpty() || path.first() >= robot;
+        return path.contains(step);
+    }
+
+    /**
+     * Returns the step of a robot that a store before it, or after it,
+     * is reached from: the last store of its path before the store, or
+     * where it stands, or its jump.
+     */
+    private int stepBefore(int robot, int store){
+        Integer before = paths[robot].lower(store);
+        if (before != null) return before;
+        return store < robot ? JUMP : START;
+    }
+
+    /**
+     * Returns the first store of a range that attracts the current robot,
+     * or -1. Stores of its own old path, and stores collected by a robot
+     * after it, are still available to it; stores collected by a robot
+     * before it, or under a robot that has not moved yet, are hidden and
+     * skipped.
+     */
+    private int scan(MaxIndex available, MaxIndex held, int from, int to, long threshold){
+        while (true){
+            int free = available.firstAbove(from, to, threshold);
+            int taken = held.firstAbove(from, to, threshold);
+            int store = free < 0 ? taken : taken < 0 ? free : Math.min(free, taken);
+            if (store < 0) return -1;
+            if (robot[store] && store > current){
+                hide(store);
+                hiddenTaken.add(store);
+            } else if (store == free || collector[store] >= current){
+                return store;
+            } else {
+                hide(store);
+                hiddenHeld.add(store);
+            }
+        }
+    }
+
+    /**
+     * Adds a store to the path of a robot, taking it from the robot after
+     * it that had collected it.
+     */
+    private void land(int robot, int store){
+        if (collector[store] >= 0) release(collector[store], store);
+        link(robot, store, 1);
+        paths[robot].add(store);
+        collector[store] = robot;
+        own(store, robot);
+        refresh(store);
+    }
+
+    /**
+     * Takes a store out of the path of a robot and gives it back.
+     */
+    private void drop(int robot, int store){
+        paths[robot].remove(store);
+        link(robot, store, -1);
+        collector[store] = -1;
+        own(store, -1);
+        refresh(store);
+        give(robot, store);
+    }
+
+    /**
+     * Adds to the profit, or takes from it, what a store of a path is
+     * worth: its tenges and the walk to it from the store before it, or
+     * from where the robot stands, instead of the walk straight to the
+     * store after it. The path must not hold the store.
+     */
+    private void link(int robot, int store, int sign){
+        TreeSet<Integer> path = paths[robot];
+        Integer before = path.lower(store);
+        Integer after = path.higher(store);
+        int from = before != null ? before : robot;
+        long worth = tenges[store] - distance(from, store);
+        if (after != null) worth += distance(from, after) - distance(store, after);
+        profit += sign * worth;
+    }
+
+    /**
+     * Returns the meters between the locations of two ranks.
+     */
+    private long distance(int from, int to){
+        return Math.abs((long) coordinates[to] - coordinates[from]);
+    }
+
+    /**
+     * Records which robot scans rightwards from a place, or -1.
+     */
+    private void own(int position, int robot){
+        owner[position] = robot;
+        scanOwner.set(position, robot >= 0 ? -robot : Long.MIN_VALUE);
+    }
+
+    /**
+     * Updates the reach of the store at a rank in the indexes. A store
+     * that holds tenges is available until collected; once collected by
+     * a robot other than the one standing on it, it stays in the held
+     * indexes for the robots planned before its collector. Only stores
+     * left of their collector can be reached by a leftward scan.
+     */
+    private void refresh(int store){
+        long left = (long) tenges[store] + coordinates[store];
+        long right = (long) tenges[store] - coordinates[store];
+        boolean loaded = tenges[store] > 0;
+        int by = collector[store];
+        reachLeft.set(store, loaded && by < 0 ? left : Long.MIN_VALUE);
+        reachRight.set(store, loaded && by < 0 ? right : Long.MIN_VALUE);
+        heldLeft.set(store, loaded && by > store ? left : Long.MIN_VALUE);
+        heldRight.set(store, loaded && by >= 0 && by != store ? right : Long.MIN_VALUE);
+    }
+
+    /**
+     * Hides a store from every scan until the event is done.
+     */
+    private void hide(int store){
+        reachLeft.set(store, Long.MIN_VALUE);
+        reachRight.set(store, Long.MIN_VALUE);
+        heldLeft.set(store, Long.MIN_VALUE);
+        heldRight.set(store, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the rank of a location, or -1 if robots and stores cannot
+     * be placed there.
+     */
+    private int rank(int location){
+        int index = Arrays.binarySearch(coordinates, location);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Returns the rank of the first location at or after a location.
+     */
+    private int ceiling(long location){
+        if (location > Integer.MAX_VALUE) return coordinates.length;
+        int index = Arrays.binarySearch(coordinates, (int) Math.max(Integer.MIN_VALUE, location));
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.*;
+/**
+ * The {@code MaxIndex} class keeps a value for each position
+ * {@code 0..size-1} and finds the first position in a range whose value
+ * is above a threshold, or the greatest value of a range, all in
+ * O(log n).
+ *
+ * <p>It is a segment tree of maxima: a subtree whose maximum is not above
+ * the threshold is skipped whole, so the search only descends into the
+ * subtree that holds the answer. An index can be {@linkplain #reset(int)
+ * reset} to a new size and reused without allocating, as long as it does
+ * not grow.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class MaxIndex
+{
+    private int capacity;
+    private long[] max;
+
+    /**
+     * Creates an empty {@code MaxIndex}.
+     */
+    public MaxIndex(){
+        capacity = 1;
+        max = new long[2];
+        max[1] = Long.MIN_VALUE;
+    }
+
+    /**
+     * Empties the index and makes room for a number of positions.
+     *
+     * @param size the number of positions.
+     */
+    public void reset(int size){
+        capacity = 1;
+        while (capacity < size) capacity *= 2;
+        if (max.length < 2 * capacity) max = new long[2 * capacity];
+        Arrays.fill(max, 0, 2 * capacity, Long.MIN_VALUE);
+    }
+
+    /**
+     * Changes the value of a position.
+     *
+     * @param position the position, from 0 to {@code size - 1}.
+     * @param value    the new value.
+     */
+    public void set(int position, long value){
+        int node = position + capacity;
+        max[node] = value;
+        for (node >>= 1; node >= 1; node >>= 1){
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the first position of a range whose value is greater than
+     * a threshold.
+     *
+     * @param from      the first position of the range, inclusive.
+     * @param to        the end of the range, exclusive.
+     * @param threshold the value to exceed.
+     * @return the position, or -1 if no value of the range exceeds the threshold.
+     */
+    public int firstAbove(int from, int to, long threshold){
+        if (from >= to) return -1;
+        return find(1, 0, capacity, from, to, threshold);
+    }
+
+    /**
+     * Returns the greatest value of a range.
+     *
+     * @param from the first position of the range, inclusive.
+     * @param to   the end of the range, exclusive.
+     * @return the greatest value, or {@code Long.MIN_VALUE} if the range is empty.
+     */
+    public long max(int from, int to){
+        long best = Long.MIN_VALUE;
+        for (from += capacity, to += capacity; from < to; from >>= 1, to >>= 1){
+            if ((from & 1) == 1) best = Math.max(best, max[from++]);
+            if ((to & 1) == 1) best = Math.max(best, max[--to]);
+        }
+        return best;
+    }
+
+    /**
+     * Searches the subtree of a node, which covers {@code [low, high)}.
+     */
+    private int find(int node, int low, int high, int from, int to, long threshold){
+        if (high <= from || to <= low || max[node] <= threshold) return -1;
+        if (high - low == 1) return low;
+        int middle = (low + high) >>> 1;
+        int found = find(2 * node, low, middle, from, to, threshold);
+        return found >= 0 ? found : find(2 * node + 1, middle, high, from, to, threshold);
+    }
+}
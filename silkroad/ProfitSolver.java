@@ -0,0 +1,171 @@
+import java.util.*;
+/**
+ * The {@code ProfitSolver} class computes the maximum profit that the robots
+ * of a Silk Road can obtain in one day, as opposed to the greedy movement of
+ * {@link SilkRoad#moveRobots()}.
+ *
+ * <p>In an optimal plan every robot sweeps an interval of the road that
+ * contains its starting location, and the intervals of different robots
+ * never need to overlap. Sweeping {@code [l, r]} from {@code s} costs
+ * {@code (r - l) + min(s - l, r - s)}: one side of the interval is walked
+ * twice and the other once. The solver scans the occupied locations from
+ * left to right keeping the best profit for each of five states:</p>
+ * <ul>
+ *   <li>{@code FREE}: not inside any interval.</li>
+ *   <li>{@code LEFT_TWICE}, {@code LEFT_ONCE}: inside an interval whose robot
+ *       has not been reached yet, walking the left side twice or once.</li>
+ *   <li>{@code RIGHT_ONCE}, {@code RIGHT_TWICE}: inside an interval whose
+ *       robot has already been reached.</li>
+ * </ul>
+ *
+ * <p>Each day costs O(n) after an O(log n) insertion, where n is the number
+ * of occupied locations.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class ProfitSolver
+{
+    static final int STATES = 5;
+    static final int FREE = 0;
+    static final int LEFT_TWICE = 1;
+    static final int LEFT_ONCE = 2;
+    static final int RIGHT_ONCE = 3;
+    static final int RIGHT_TWICE = 4;
+    static final long NONE = Long.MIN_VALUE / 4;
+
+    private TreeMap<Integer, long[]> locations;
+    private long[] state;
+
+    /**
+     * Creates an empty {@code ProfitSolver}.
+     */
+    public ProfitSolver(){
+        locations = new TreeMap<>();
+        state = new long[STATES];
+    }
+
+    /**
+     * Places a robot at the specified location. As in
+     * {@link SilkRoad#pleaseRobot(int)}, a location holds a single robot and
+     * locations before the first one are ignored.
+     *
+     * @param location the location index on the road.
+     */
+    public void pleaseRobot(int location){
+        if (location < 1) return;
+        long[] cell = cell(location);
+        cell[0] = 1;
+    }
+
+    /**
+     * Places a store at the specified location with an amount of tenges.
+     * As in {@link SilkRoad#pleaseStore(int, int)}, a new store replaces the
+     * one already at its location and no store can be placed at location 1
+     * or before it.
+     *
+     * @param location the location index on the road.
+     * @param tenges   the tenges of the store.
+     */
+    public void pleaseStore(int location, int tenges){
+        if (location <= 1) return;
+        long[] cell = cell(location);
+        cell[1] = 1;
+        cell[2] = tenges;
+    }
+
+    /**
+     * Returns the {robot, store, tenges} of a location, where the first two
+     * are {@code 1} if the location holds one, creating them if the
+     * location was empty.
+     */
+    private long[] cell(int location){
+        long[] cell = locations.get(location);
+        if (cell == null){
+            cell = new long[3];
+            locations.put(location, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Calculates the maximum total profit the robots can obtain with the
+     * robots and stores currently placed.
+     *
+     * @return the maximum profit, never negative since robots may stay still.
+     */
+    public long profit(){
+        Arrays.fill(state, NONE);
+        state[FREE] = 0;
+        int previous = 0;
+        boolean first = true;
+        for (Map.Entry<Integer, long[]> entry: locations.entrySet()){
+            int location = entry.getKey();
+            long[] cell = entry.getValue();
+            if (!first) travel(state, (long) location - previous);
+            visit(state, cell[0] != 0, cell[1] != 0, cell[2]);
+            previous = location;
+            first = false;
+        }
+        return state[FREE];
+    }
+
+    /**
+     * Advances every state a number of meters to the right, charging each
+     * open interval once or twice the distance depending on how its side
+     * is walked.
+     *
+     * @param state    the best profit per state.
+     * @param distance the meters between two consecutive locations.
+     */
+    static void travel(long[] state, long distance){
+        state[LEFT_TWICE] = charge(state[LEFT_TWICE], 2 * distance);
+        state[LEFT_ONCE] = charge(state[LEFT_ONCE], distance);
+        state[RIGHT_ONCE] = charge(state[RIGHT_ONCE], distance);
+        state[RIGHT_TWICE] = charge(state[RIGHT_TWICE], 2 * distance);
+    }
+
+    /**
+     * Updates every state with the robots and stores found at one location.
+     * A store may be collected by any open interval, which may also pass it
+     * by, or start a new one if it holds tenges; the robot, if any, may own
+     * the interval being swept.
+     *
+     * @param state  the best profit per state.
+     * @param robot  whether a robot stands at the location.
+     * @param store  whether a store stands at the location.
+     * @param tenges the tenges of the store.
+     */
+    static void visit(long[] state, boolean robot, boolean store, long tenges){
+        if (store){
+            for (int i = LEFT_TWICE; i <= RIGHT_TWICE; i++){
+                state[i] = Math.max(state[i], charge(state[i], -tenges));
+            }
+            if (tenges > 0){
+                long open = charge(state[FREE], -tenges);
+                state[LEFT_TWICE] = Math.max(state[LEFT_TWICE], open);
+                state[LEFT_ONCE] = Math.max(state[LEFT_ONCE], open);
+            }
+        }
+        if (robot){
+            state[RIGHT_ONCE] = Math.max(state[RIGHT_ONCE], Math.max(state[LEFT_TWICE], state[FREE]));
+            state[RIGHT_TWICE] = Math.max(state[RIGHT_TWICE], Math.max(state[LEFT_ONCE], state[FREE]));
+        }
+        close(state);
+    }
+
+    /**
+     * Lets every interval whose robot has been reached end here.
+     */
+    private static void close(long[] state){
+        state[FREE] = Math.max(state[FREE], Math.max(state[RIGHT_ONCE], state[RIGHT_TWICE]));
+    }
+
+    /**
+     * Subtracts a cost from a profit, keeping unreachable states unreachable.
+     */
+    static long charge(long profit, long cost){
+        if (profit <= NONE) return NONE;
+        return profit - cost;
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.*;
+/**
+ * The {@code ProfitTree} class maintains the maximum profit of a Silk Road
+ * while robots and stores keep arriving, without recomputing the whole day.
+ *
+ * <p>It applies the same five-state scan as {@link ProfitSolver}, but stores
+ * it as a balanced binary search tree (a treap) keyed by location. Every node
+ * keeps the combined effect of scanning its subtree as a 5x5 max-plus matrix,
+ * so placing a robot or a store only recomputes the nodes on the path to its
+ * location and the day's answer is read directly from the root.</p>
+ *
+ * <p>Each event costs O(log n), so a contest of n events is solved in
+ * O(n log n) instead of rebuilding and rebooting the road every day.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class ProfitTree
+{
+    private static final int CELLS = ProfitSolver.STATES * ProfitSolver.STATES;
+
+    private int size;
+    private int root;
+    private int[] location;
+    private int[] priority;
+    private int[] left;
+    private int[] right;
+    private int[] first;
+    private int[] last;
+    private boolean[] robot;
+    private boolean[] store;
+    private long[] tenges;
+    private long[] matrix;
+    private long[] scratch;
+    private long[] row;
+    private Random random;
+
+    /**
+     * Creates an empty {@code ProfitTree}.
+     */
+    public ProfitTree(){
+        root = -1;
+        random = new Random(17);
+        scratch = new long[CELLS];
+        row = new long[ProfitSolver.STATES];
+        location = new int[16];
+        priority = new int[16];
+        left = new int[16];
+        right = new int[16];
+        first = new int[16];
+        last = new int[16];
+        robot = new boolean[16];
+        store = new boolean[16];
+        tenges = new long[16];
+        matrix = new long[16 * CELLS];
+    }
+
+    /**
+     * Places a robot at the specified location, following the same rules
+     * as {@link ProfitSolver#pleaseRobot(int)}.
+     *
+     * @param location the location index on the road.
+     */
+    public void pleaseRobot(int location){
+        if (location < 1) return;
+        root = insert(root, location, false, 0);
+    }
+
+    /**
+     * Places a store at the specified location with an amount of tenges,
+     * following the same rules as {@link ProfitSolver#pleaseStore(int, int)}.
+     *
+     * @param location the location index on the road.
+     * @param tenges   the tenges of the store.
+     */
+    public void pleaseStore(int location, int tenges){
+        if (location <= 1) return;
+        root = insert(root, location, true, tenges);
+    }
+
+    /**
+     * Returns the maximum total profit the robots can obtain with the
+     * robots and stores placed so far.
+     *
+     * @return the maximum profit, never negative since robots may stay still.
+     */
+    public long profit(){
+        if (root < 0) return 0;
+        return matrix[root * CELLS + ProfitSolver.FREE * ProfitSolver.STATES + ProfitSolver.FREE];
+    }
+
+    /**
+     * Puts the robot, or the store and its tenges, on a location of the
+     * subtree, creating its node if needed, and returns the new subtree root.
+     */
+    private int insert(int node, int key, boolean store, int storeTenges){
+        if (node < 0) node = create(key);
+        if (key == location[node]){
+            if (store){
+                this.store[node] = true;
+                tenges[node] = storeTenges;
+            } else robot[node] = true;
+        } else if (key < location[node]){
+            int child = insert(left[node], key, store, storeTenges);
+            left[node] = child;
+            if (priority[child] > priority[node]){
+                left[node] = right[child];
+                right[child] = node;
+                update(node);
+                node = child;
+            }
+        } else {
+            int child = insert(right[node], key, store, storeTenges);
+            right[node] = child;
+            if (priority[child] > priority[node]){
+                right[node] = left[child];
+                left[child] = node;
+                update(node);
+                node = child;
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Creates a childless node for a location.
+     */
+    private int create(int key){
+        if (size == location.length) grow(2 * size);
+        int node = size;
+        size++;
+        location[node] = key;
+        priority[node] = random.nextInt();
+        left[node] = -1;
+        right[node] = -1;
+        robot[node] = false;
+        store[node] = false;
+        tenges[node] = 0;
+        return node;
+    }
+
+    /**
+     * Recomputes the scan matrix and the location range of a node
+     * from its own cell and its children. Scanning a single location is
+     * a cheap operation on each row, so only the right child needs a
+     * full matrix product.
+     */
+    private void update(int node){
+        int key = location[node];
+        int child = left[node];
+        for (int i = 0; i < ProfitSolver.STATES; i++){
+            if (child >= 0){
+                System.arraycopy(matrix, child * CELLS + i * ProfitSolver.STATES, row, 0, ProfitSolver.STATES);
+                ProfitSolver.travel(row, (long) key - last[child]);
+            } else {
+                Arrays.fill(row, ProfitSolver.NONE);
+                row[i] = 0;
+            }
+            ProfitSolver.visit(row, robot[node], store[node], tenges[node]);
+            System.arraycopy(row, 0, scratch, i * ProfitSolver.STATES, ProfitSolver.STATES);
+        }
+        first[node] = child >= 0 ? first[child] : key;
+        last[node] = key;
+        child = right[node];
+        if (child >= 0){
+            multiply(scratch, 0, (long) first[child] - key, matrix, child * CELLS, matrix, node * CELLS);
+            last[node] = last[child];
+        } else {
+            System.arraycopy(scratch, 0, matrix, node * CELLS, CELLS);
+        }
+    }
+
+    /**
+     * Computes the max-plus product of scanning {@code a}, travelling the
+     * given distance and then scanning {@code b}. Unreachable entries stay
+     * far enough from real profits to be recognized after each sum.
+     */
+    private void multiply(long[] a, int aFrom, long distance, long[] b, int bFrom, long[] result, int from){
+        for (int i = 0; i < ProfitSolver.STATES; i++){
+            System.arraycopy(a, aFrom + i * ProfitSolver.STATES, row, 0, ProfitSolver.STATES);
+            ProfitSolver.travel(row, distance);
+            for (int j = 0; j < ProfitSolver.STATES; j++){
+                long best = row[0] + b[bFrom + j];
+                for (int k = 1; k < ProfitSolver.STATES; k++){
+                    long value = row[k] + b[bFrom + k * ProfitSolver.STATES + j];
+                    if (value > best) best = value;
+                }
+                result[from + i * ProfitSolver.STATES + j] = best < ProfitSolver.NONE / 2 ? ProfitSolver.NONE : best;
+            }
+        }
+    }
+
+    /**
+     * Enlarges the node storage to the given capacity.
+     */
+    private void grow(int capacity){
+        location = Arrays.copyOf(location, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        first = Arrays.copyOf(first, capacity);
+        last = Arrays.copyOf(last, capacity);
+        robot = Arrays.copyOf(robot, capacity);
+        store = Arrays.copyOf(store, capacity);
+        tenges = Arrays.copyOf(tenges, capacity);
+        matrix = Arrays.copyOf(matrix, capacity * CELLS);
+    }
+}
@@ -0,0 +1,181 @@
+import java.util.*;
+/**
+ * The {@code RangeIndex} class answers the sum, the count and the maximum
+ * of the values present in a range of positions in O(log n), and updates a
+ * single position in O(log n).
+ *
+ * <p>It is a bottom-up segment tree over positions {@code 0..size-1}. Each
+ * node keeps the aggregates of its range twice: the initial ones, and the
+ * current ones together with the epoch they were computed in. A current
+ * aggregate from an older epoch is ignored in favour of the initial one, so
+ * {@link #revert()} puts every position back to its initial value in O(1),
+ * the same way {@link SilkRoad} reboots its stores.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class RangeIndex
+{
+    private static final int SUM = 0;
+    private static final int COUNT = 1;
+    private static final int MAX = 2;
+
+    private int size;
+    private int epoch;
+    private int[] stamp;
+    private int[] sum;
+    private int[] count;
+    private int[] max;
+    private int[] initialSum;
+    private int[] initialCount;
+    private int[] initialMax;
+
+    /**
+     * Creates an index where no position holds a value.
+     *
+     * @param size the number of positions.
+     */
+    public RangeIndex(int size){
+        this.size = Math.max(size, 1);
+        stamp = new int[2 * this.size];
+        sum = new int[2 * this.size];
+        count = new int[2 * this.size];
+        max = new int[2 * this.size];
+        initialSum = new int[2 * this.size];
+        initialCount = new int[2 * this.size];
+        initialMax = new int[2 * this.size];
+        Arrays.fill(max, Integer.MIN_VALUE);
+        Arrays.fill(initialMax, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Changes the current value of a position until the next
+     * {@link #revert()}.
+     *
+     * @param position the position, from 0 to {@code size - 1}.
+     * @param present  whether the position holds a value at all.
+     * @param value    the value it holds, ignored if it holds none.
+     */
+    public void put(int position, boolean present, int value){
+        int node = position + size;
+        stamp[node] = epoch;
+        sum[node] = present ? value : 0;
+        count[node] = present ? 1 : 0;
+        max[node] = present ? value : Integer.MIN_VALUE;
+        for (node >>= 1; node >= 1; node >>= 1){
+            int left = 2 * node;
+            int right = left + 1;
+            sum[node] = get(SUM, left) + get(SUM, right);
+            count[node] = get(COUNT, left) + get(COUNT, right);
+            max[node] = Math.max(get(MAX, left), get(MAX, right));
+            stamp[node] = epoch;
+        }
+    }
+
+    /**
+     * Changes the initial value of a position, which is also its current
+     * value from now on.
+     *
+     * @param position the position, from 0 to {@code size - 1}.
+     * @param present  whether the position holds a value at all.
+     * @param value    the value it holds, ignored if it holds none.
+     */
+    public void putInitial(int position, boolean present, int value){
+        int node = position + size;
+        initialSum[node] = present ? value : 0;
+        initialCount[node] = present ? 1 : 0;
+        initialMax[node] = present ? value : Integer.MIN_VALUE;
+        for (node >>= 1; node >= 1; node >>= 1){
+            int left = 2 * node;
+            int right = left + 1;
+            initialSum[node] = initialSum[left] + initialSum[right];
+            initialCount[node] = initialCount[left] + initialCount[right];
+            initialMax[node] = Math.max(initialMax[left], initialMax[right]);
+        }
+        put(position, present, value);
+    }
+
+    /**
+     * Puts every position back to its initial value, in O(1).
+     */
+    public void revert(){
+        if (epoch == Integer.MAX_VALUE){
+            System.arraycopy(initialSum, 0, sum, 0, sum.length);
+            System.arraycopy(initialCount, 0, count, 0, count.length);
+            System.arraycopy(initialMax, 0, max, 0, max.length);
+            Arrays.fill(stamp, 0);
+            epoch = 0;
+        } else epoch++;
+    }
+
+    /**
+     * Returns the sum of the values held between two positions.
+     *
+     * @param from the first position, inclusive.
+     * @param to   the last position, inclusive.
+     * @return the sum of the values, or {@code 0} if there are none.
+     */
+    public int sum(int from, int to){
+        return query(SUM, from, to);
+    }
+
+    /**
+     * Returns the number of positions between two positions that hold a value.
+     *
+     * @param from the first position, inclusive.
+     * @param to   the last position, inclusive.
+     * @return the number of values.
+     */
+    public int count(int from, int to){
+        return query(COUNT, from, to);
+    }
+
+    /**
+     * Returns the largest value held between two positions.
+     *
+     * @param from the first position, inclusive.
+     * @param to   the last position, inclusive.
+     * @return the largest value, or {@link Integer#MIN_VALUE} if there are none.
+     */
+    public int max(int from, int to){
+        return query(MAX, from, to);
+    }
+
+    /**
+     * Combines one aggregate over the nodes that cover a range.
+     */
+    private int query(int kind, int from, int to){
+        int result = kind == MAX ? Integer.MIN_VALUE : 0;
+        int left = Math.max(from, 0) + size;
+        int right = Math.min(to, size - 1) + size + 1;
+        for (; left < right; left >>= 1, right >>= 1){
+            if ((left & 1) == 1){
+                result = combine(kind, result, get(kind, left));
+                left++;
+            }
+            if ((right & 1) == 1){
+                right--;
+                result = combine(kind, result, get(kind, right));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Combines two values of an aggregate.
+     */
+    private static int combine(int kind, int a, int b){
+        return kind == MAX ? Math.max(a, b) : a + b;
+    }
+
+    /**
+     * Returns one aggregate of a node: the current one if it was computed
+     * in this epoch, the initial one otherwise.
+     */
+    private int get(int kind, int node){
+        boolean current = stamp[node] == epoch;
+        if (kind == SUM) return current ? sum[node] : initialSum[node];
+        if (kind == COUNT) return current ? count[node] : initialCount[node];
+        return current ? max[node] : initialMax[node];
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * The {@code RoadSnapshot} class is an immutable picture of a
+ * {@link SilkRoad} at the end of a contest day: where its stores and
+ * robots are, which stores were emptied and how much profit was made.
+ * <p>
+ * Snapshots are taken with {@link SilkRoad#snapshot(int)} and can be
+ * handed to another thread freely; the {@link SilkRoadPlayer} takes them
+ * on its simulation thread and draws them on its render thread.
+ * </p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public final class RoadSnapshot
+{
+    private final int day;
+    private final int profit;
+    private final int cells;
+    private final int[] storeCells;
+    private final int[] storeTenges;
+    private final boolean[] storeEmptied;
+    private final int[] robotCells;
+    private final int[] robotOrigins;
+
+    /**
+     * Creates a snapshot from arrays that nobody else holds.
+     *
+     * @param day          the index of the day, starting at 0.
+     * @param profit       the profit of the day.
+     * @param cells        the number of cells of the spiral road.
+     * @param storeCells   the spiral cell of each store.
+     * @param storeTenges  the initial tenges of each store.
+     * @param storeEmptied whether each store was emptied during the day.
+     * @param robotCells   the spiral cell of each robot.
+     * @param robotOrigins the spiral cell each robot started the day at.
+     */
+    RoadSnapshot(int day, int profit, int cells, int[] storeCells, int[] storeTenges,
+                 boolean[] storeEmptied, int[] robotCells, int[] robotOrigins){
+        this.day = day;
+        this.profit = profit;
+        this.cells = cells;
+        this.storeCells = storeCells;
+        this.storeTenges = storeTenges;
+        this.storeEmptied = storeEmptied;
+        this.robotCells = robotCells;
+        this.robotOrigins = robotOrigins;
+    }
+
+    /**
+     * Returns the index of the day of this snapshot.
+     *
+     * @return the day, starting at 0.
+     */
+    public int getDay(){
+        return day;
+    }
+
+    /**
+     * Returns the profit obtained on the day of this snapshot.
+     *
+     * @return the total tenges held by the robots.
+     */
+    public int getProfit(){
+        return profit;
+    }
+
+    /**
+     * Returns the number of cells of the spiral road.
+     *
+     * @return the length of the spiral.
+     */
+    public int getCells(){
+        return cells;
+    }
+
+    /**
+     * Returns the number of stores on the road.
+     *
+     * @return the number of stores.
+     */
+    public int getStores(){
+        return storeCells.length;
+    }
+
+    /**
+     * Returns the number of robots on the road.
+     *
+     * @return the number of robots.
+     */
+    public int getRobots(){
+        return robotCells.length;
+    }
+
+    /**
+     * Creates the view that draws one of the stores.
+     *
+     * @param spiral the spiral road the store is placed on.
+     * @param store  the index of the store, from 0 to {@link #getStores()}.
+     * @return a new {@link Store} in the state the store ended the day.
+     */
+    public Store createStore(SpiralRoad spiral, int store){
+        int cell = storeCells[store];
+        Store view = new Store(spiral.getXPosition(cell), spiral.getYPosition(cell), storeTenges[store]);
+        if (storeEmptied[store]) view.removeTenges();
+        return view;
+    }
+
+    /**
+     * Creates the view that draws one of the robots.
+     *
+     * @param spiral the spiral road the robot is placed on.
+     * @param robot  the index of the robot, from 0 to {@link #getRobots()}.
+     * @return a new {@link Robot} where the robot ended the day.
+     */
+    public Robot createRobot(SpiralRoad spiral, int robot){
+        int origin = robotOrigins[robot];
+        int cell = robotCells[robot];
+        Robot view = new Robot(spiral.getXPosition(origin), spiral.getYPosition(origin), origin + 1);
+        view.moveTo(spiral.getXPosition(cell), spiral.getYPosition(cell));
+        return view;
+    }
+}
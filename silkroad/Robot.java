@@ -29,6 +29,10 @@ public class Robot
     /**
      * Creates a {@code Robot} object at the specified position with a given
      * initial amount of tenges.
+     * <p>
+     * Only the robot's data is initialized here; its graphical components
+     * are created the first time it is made visible.
+     * </p>
      *
      * @param x      the initial x-coordinate of the robot.
      * @param y      the initial y-coordinate of the robot.
@@ -40,28 +44,27 @@ public class Robot
         yPosition = y;
         actualX = x;
         actualY = y;
-        createRobot();
         actualTenges = 0;
         this.initialLocation = initialLocation;
     }
     
     /**
      * Creates the robot's graphical components (head, body, arms, and legs)
-     * based on its position and size.
+     * based on its current position and size.
      */
     public void createRobot(){
         
         int armWidth = percentage(size, 0.6);
         int armHeight = size + armWidth;
-        int armX = (int) (xPosition - (size * 0.3));
-        int armY = yPosition-size;
+        int armX = (int) (actualX - (size * 0.3));
+        int armY = actualY-size;
 
         int legHeight = percentage(size, 0.6);
-        int legX = xPosition + percentage(size, 0.2);
-        int legY = yPosition;
+        int legX = actualX + percentage(size, 0.2);
+        int legY = actualY;
         
-        body = new Rectangle(size, size,"black", xPosition, yPosition-size);
-        head = new Circle(size,xPosition, yPosition-(2*size),"black");
+        body = new Rectangle(size, size,"black", actualX, actualY-size);
+        head = new Circle(size,actualX, actualY-(2*size),"black");
         arms = new Rectangle(armWidth, armHeight, "green", armX, armY);
         legs = new Rectangle(size, legHeight, "green", legX, legY);
     }
@@ -76,6 +79,7 @@ public class Robot
     public void moveTo(int x, int y){
         actualX = x;
         actualY = y;
+        if (head == null) return;
         
         int armX = x - percentage(size, 0.3);
         int armY = y - size;
@@ -106,7 +110,7 @@ public class Robot
      * Makes the robot visible on the canvas by displaying all its parts.
      */
     public void makeVisible(){
-        
+        if (head == null) createRobot();
         head.makeVisible();
         arms.makeVisible();
         legs.makeVisible();
@@ -118,7 +122,7 @@ public class Robot
      * Makes the robot invisible on the canvas by hiding all its parts.
      */
     public void makeInvisible(){
-        
+        if (head == null) return;
         head.makeInvisible();
         arms.makeInvisible();
         body.makeInvisible();
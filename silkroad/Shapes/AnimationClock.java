@@ -0,0 +1,62 @@
+package Shapes;
+
+/**
+ * An animation clock paces animations. Drawing on the canvas is
+ * instantaneous; code that wants the user to see the intermediate steps
+ * of an animation calls tick between them, and the clock waits until its
+ * delay has passed since the previous tick. Time spent drawing counts
+ * towards the delay, so a step never takes longer than it has to.
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class AnimationClock{
+
+    private int delay;
+    private long lastTick;
+
+    /**
+     * Create an animation clock.
+     * @param delay  the minimum number of milliseconds between two ticks
+     */
+    public AnimationClock(int delay){
+        setDelay(delay);
+    }
+
+    /**
+     * Change the delay of the clock. A delay of 0 makes tick return
+     * immediately.
+     * @param milliseconds  the minimum number of milliseconds between two ticks
+     */
+    public void setDelay(int milliseconds){
+        if(milliseconds < 0) {
+            throw new IllegalArgumentException("delay must be >= 0");
+        }
+        delay = milliseconds;
+    }
+
+    /**
+     * Return the delay of the clock.
+     * @return the minimum number of milliseconds between two ticks
+     */
+    public int getDelay(){
+        return delay;
+    }
+
+    /**
+     * Wait until the delay has passed since the previous tick.
+     * The first tick returns immediately.
+     */
+    public void tick(){
+        long now = System.nanoTime();
+        long remaining = lastTick + delay * 1000000L - now;
+        if(lastTick != 0 && remaining > 0) {
+            try{
+                Thread.sleep(remaining / 1000000L, (int) (remaining % 1000000L));
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+        lastTick = System.nanoTime();
+    }
+}
@@ -1,7 +1,13 @@
 package Shapes;
 
 import javax.swing.*;
+import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.*;
 
@@ -14,6 +20,21 @@ import java.util.*;
  * @author: Michael Kolling (mik)
  *
  * @version: 1.6 (shapes)
+ *
+ * Shapes can be drawn on one of two layers. The background layer is for
+ * shapes that rarely change, such as a road: it is painted once into an
+ * off-screen image and only painted again when one of its shapes changes.
+ * Every repaint copies that image and draws the foreground shapes on top,
+ * so its cost depends on the number of foreground shapes only.
+ *
+ * The canvas shows the drawing through a viewport that can be zoomed and
+ * panned. Only shapes that intersect the visible area are painted, and
+ * cell layers such as a road are asked for their visible cells only, so
+ * drawings much larger than the window stay cheap.
+ *
+ * When Java runs headless (java.awt.headless=true) the canvas opens no
+ * window: it draws into the same off-screen image, which can be saved
+ * with writeImage, so pictures can be produced without a display.
  */
 public class Canvas{
     // Note: The implementation of this class (specifically the handling of
@@ -39,11 +60,22 @@ public class Canvas{
 
     private JFrame frame;
     private CanvasPane canvas;
+    private Dimension size;
     private Graphics2D graphic;
     private Color backgroundColour;
-    private Image canvasImage;
-    private List <Object> objects;
+    private BufferedImage canvasImage;
+    private Set <Object> objects;
+    private Set <Object> backgroundObjects;
     private HashMap <Object,ShapeDescription> shapes;
+    private Map <Object,CellLayer> cellLayers;
+    private double zoom;
+    private double viewX;
+    private double viewY;
+    private BufferedImage backgroundImage;
+    private boolean backgroundChanged;
+    private int frameDepth;
+    private boolean changed;
+    private AnimationClock animationClock;
     
     /**
      * Create a Canvas.
@@ -53,15 +85,23 @@ public class Canvas{
      * @param bgClour  the desired background colour of the canvas
      */
     private Canvas(String title, int width, int height, Color bgColour){
-        frame = new JFrame();
-        canvas = new CanvasPane();
-        frame.setContentPane(canvas);
-        frame.setTitle(title);
-        canvas.setPreferredSize(new Dimension(width, height));
+        size = new Dimension(width, height);
+        if(!GraphicsEnvironment.isHeadless()) {
+            frame = new JFrame();
+            canvas = new CanvasPane();
+            frame.setContentPane(canvas);
+            frame.setTitle(title);
+            canvas.setPreferredSize(size);
+            frame.pack();
+        }
         backgroundColour = bgColour;
-        frame.pack();
-        objects = new ArrayList <Object>();
+        objects = new LinkedHashSet <Object>();
+        backgroundObjects = new LinkedHashSet <Object>();
+        cellLayers = new LinkedHashMap <Object,CellLayer>();
+        zoom = 1;
+        backgroundChanged = true;
         shapes = new HashMap <Object,ShapeDescription>();
+        animationClock = new AnimationClock(10);
     }
 
     /**
@@ -69,20 +109,22 @@ public class Canvas{
      * when made visible. This method can also be used to bring an already
      * visible canvas to the front of other windows.
      * @param visible  boolean value representing the desired visibility of
-     * the canvas (true or false) 
+     * the canvas (true or false); ignored when there is no display
      */
     public void setVisible(boolean visible){
         if(graphic == null) {
             // first time: instantiate the offscreen image and fill it with
             // the background colour
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
-            graphic = (Graphics2D)canvasImage.getGraphics();
+            canvasImage = new BufferedImage(size.width, size.height,
+                                            BufferedImage.TYPE_INT_RGB);
+            graphic = canvasImage.createGraphics();
             graphic.setColor(backgroundColour);
             graphic.fillRect(0, 0, size.width, size.height);
             graphic.setColor(Color.black);
         }
-        frame.setVisible(visible);
+        if(frame != null) {
+            frame.setVisible(visible);
+        }
     }
 
     /**
@@ -95,8 +137,26 @@ public class Canvas{
      // objects. It is carefully designed to keep the visible shape interfaces
      // in this project clean and simple for educational purposes.
     public void draw(Object referenceObject, String color, Shape shape){
-        objects.remove(referenceObject);   // just in case it was already there
-        objects.add(referenceObject);      // add at the end
+        draw(referenceObject, color, shape, false);
+    }
+
+    /**
+     * Draw a given shape onto the foreground or the background layer.
+     * @param  referenceObject  an object to define identity for this shape
+     * @param  color            the color of the shape
+     * @param  shape            the shape object to be drawn on the canvas
+     * @param  background       true to draw the shape on the cached
+     *                          background layer
+     */
+    public void draw(Object referenceObject, String color, Shape shape,
+                     boolean background){
+        remove(referenceObject);           // just in case it was already there
+        if(background) {
+            backgroundObjects.add(referenceObject);
+            backgroundChanged = true;
+        } else {
+            objects.add(referenceObject);  // add at the end
+        }
         shapes.put(referenceObject, new ShapeDescription(shape, color));
         redraw();
     }
@@ -106,32 +166,157 @@ public class Canvas{
      * @param  referenceObject  the shape object to be erased 
      */
     public void erase(Object referenceObject){
-        objects.remove(referenceObject);   // just in case it was already there
+        remove(referenceObject);
         shapes.remove(referenceObject);
         redraw();
     }
 
+    /**
+     * Draw a layer of cells onto the background. Only the cells inside the
+     * viewport are painted.
+     * @param  referenceObject  an object to define identity for the layer
+     * @param  cells            the cells to be drawn on the canvas
+     */
+    public void drawCells(Object referenceObject, CellLayer cells){
+        remove(referenceObject);
+        cellLayers.put(referenceObject, cells);
+        backgroundChanged = true;
+        redraw();
+    }
+
+    /**
+     * Take a shape out of whichever layer holds it. (Does not repaint.)
+     */
+    private void remove(Object referenceObject){
+        objects.remove(referenceObject);
+        if(backgroundObjects.remove(referenceObject)
+           || cellLayers.remove(referenceObject) != null) {
+            backgroundChanged = true;
+        }
+    }
+
+    /**
+     * Move and zoom the viewport.
+     * @param  x     the x coordinate of the drawing shown at the top left corner
+     * @param  y     the y coordinate of the drawing shown at the top left corner
+     * @param  zoom  the number of pixels on screen per pixel of the drawing;
+     *               must be greater than 0
+     */
+    public void setViewport(double x, double y, double zoom){
+        if(zoom <= 0) {
+            throw new IllegalArgumentException("zoom must be > 0");
+        }
+        viewX = x;
+        viewY = y;
+        this.zoom = zoom;
+        backgroundChanged = true;
+        redraw();
+    }
+
+    /**
+     * Zoom in or out, keeping the centre of the window in place.
+     * @param  factor  how much to magnify; above 1 zooms in, below 1 zooms out
+     */
+    public void zoom(double factor){
+        double centerX = viewX + size.width / (2 * zoom);
+        double centerY = viewY + size.height / (2 * zoom);
+        double newZoom = zoom * factor;
+        setViewport(centerX - size.width / (2 * newZoom),
+                    centerY - size.height / (2 * newZoom), newZoom);
+    }
+
+    /**
+     * Move the viewport.
+     * @param  dx  the distance to move right, in screen pixels
+     * @param  dy  the distance to move down, in screen pixels
+     */
+    public void pan(int dx, int dy){
+        setViewport(viewX + dx / zoom, viewY + dy / zoom, zoom);
+    }
+
+    /**
+     * Return the current zoom of the viewport.
+     * @return the number of pixels on screen per pixel of the drawing
+     */
+    public double getZoom(){
+        return zoom;
+    }
+
+    /**
+     * Return the part of the drawing inside the window.
+     */
+    private Rectangle2D visibleArea(){
+        return new Rectangle2D.Double(viewX, viewY,
+                                      size.width / zoom, size.height / zoom);
+    }
+
+    /**
+     * Return the transform from drawing to screen coordinates.
+     */
+    private AffineTransform viewTransform(){
+        AffineTransform transform = AffineTransform.getScaleInstance(zoom, zoom);
+        transform.translate(-viewX, -viewY);
+        return transform;
+    }
+
+    /**
+     * Start a frame. Until the matching call to endFrame, draws and erases
+     * only update the list of shapes; the canvas is repainted once, when the
+     * outermost frame ends. Frames may be nested.
+     */
+    public void beginFrame(){
+        frameDepth++;
+    }
+
+    /**
+     * End a frame started with beginFrame. When the outermost frame ends,
+     * the canvas is repainted if any shape changed during the frame.
+     */
+    public void endFrame(){
+        if(frameDepth == 0) return;
+        frameDepth--;
+        if(frameDepth == 0 && changed) {
+            redraw();
+        }
+    }
+
     /**
      * Set the foreground colour of the Canvas.
      * @param  newColour   the new colour for the foreground of the Canvas 
      */
     public void setForegroundColor(String colorString){
+        graphic.setColor(getColor(colorString));
+    }
+
+    /**
+     * Return the colour named by a string; unknown names are black.
+     */
+    private Color getColor(String colorString){
         if(colorString.equals("red"))
-            graphic.setColor(Color.red);
+            return Color.red;
         else if(colorString.equals("black"))
-            graphic.setColor(Color.black);
+            return Color.black;
         else if(colorString.equals("blue"))
-            graphic.setColor(Color.blue);
+            return Color.blue;
         else if(colorString.equals("yellow"))
-            graphic.setColor(Color.yellow);
+            return Color.yellow;
         else if(colorString.equals("green"))
-            graphic.setColor(Color.green);
+            return Color.green;
         else if(colorString.equals("magenta"))
-            graphic.setColor(Color.magenta);
+            return Color.magenta;
         else if(colorString.equals("white"))
-            graphic.setColor(Color.white);
+            return Color.white;
         else
-            graphic.setColor(Color.black);
+            return Color.black;
+    }
+
+    /**
+     * Return the clock that paces the slow moves of the shapes. Drawing
+     * itself never waits; only animations ask this clock for a delay.
+     * @return the animation clock of this canvas
+     */
+    public AnimationClock getAnimationClock(){
+        return animationClock;
     }
 
     /**
@@ -149,28 +334,108 @@ public class Canvas{
     }
 
     /**
-     * Redraw ell shapes currently on the Canvas.
+     * Save the picture on the canvas as a PNG image. Changes made inside a
+     * frame that has not ended yet are included.
+     * @param  file  the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeImage(File file) throws IOException{
+        if(changed) {
+            paint();
+        }
+        ImageIO.write(canvasImage, "png", file);
+    }
+
+    /**
+     * Redraw ell shapes currently on the Canvas, unless a frame is open.
      */
     private void redraw(){
-        erase();
+        if(frameDepth > 0) {
+            changed = true;
+            return;
+        }
+        paint();
+    }
+
+    /**
+     * Paint all shapes currently on the Canvas into the off-screen image
+     * and show it.
+     */
+    private void paint(){
+        changed = false;
+        if(backgroundChanged) {
+            paintBackground();
+        }
+        graphic.drawImage(backgroundImage, 0, 0, null);
+        AffineTransform screen = graphic.getTransform();
+        graphic.transform(viewTransform());
+        Rectangle2D visible = visibleArea();
         for(Iterator i=objects.iterator(); i.hasNext(); ) {
-                       shapes.get(i.next()).draw(graphic);
+                       shapes.get(i.next()).draw(graphic, visible);
+        }
+        graphic.setTransform(screen);
+        if(canvas != null) {
+            canvas.repaint();
         }
-        canvas.repaint();
     }
-       
+
     /**
-     * Erase the whole canvas. (Does not repaint.)
+     * Paint the background colour and every background shape into the
+     * cached background image. (Does not repaint.)
      */
-    private void erase(){
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
-        graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+    private void paintBackground(){
+        int width = Math.max(1, size.width);
+        int height = Math.max(1, size.height);
+        if(backgroundImage == null || backgroundImage.getWidth() != width
+           || backgroundImage.getHeight() != height) {
+            backgroundImage = new BufferedImage(width, height,
+                                                BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D background = backgroundImage.createGraphics();
+        background.setColor(backgroundColour);
+        background.fillRect(0, 0, width, height);
+        background.transform(viewTransform());
+        Rectangle2D visible = visibleArea();
+        for(Object shape : backgroundObjects) {
+            shapes.get(shape).draw(background, visible);
+        }
+        for(CellLayer cells : cellLayers.values()) {
+            paintCells(background, cells, visible);
+        }
+        background.dispose();
+        backgroundChanged = false;
     }
 
 
+    /**
+     * Paint the cells of a layer that lie inside the visible area.
+     */
+    private void paintCells(Graphics2D graphic, CellLayer cells,
+                            Rectangle2D visible){
+        int side = cells.getCellSize();
+        java.awt.Rectangle bounds = cells.getCellBounds();
+        int firstColumn = Math.max(bounds.x,
+                                   (int) Math.floor(visible.getMinX() / side));
+        int lastColumn = Math.min(bounds.x + bounds.width - 1,
+                                  (int) Math.floor(visible.getMaxX() / side));
+        int firstRow = Math.max(bounds.y,
+                                (int) Math.floor(visible.getMinY() / side));
+        int lastRow = Math.min(bounds.y + bounds.height - 1,
+                               (int) Math.floor(visible.getMaxY() / side));
+        String current = null;
+        for(int row = firstRow; row <= lastRow; row++) {
+            for(int column = firstColumn; column <= lastColumn; column++) {
+                String color = cells.getCellColor(column, row);
+                if(color == null) continue;
+                if(!color.equals(current)) {
+                    graphic.setColor(getColor(color));
+                    current = color;
+                }
+                graphic.fillRect(column * side, row * side, side, side);
+            }
+        }
+    }
+
     /************************************************************************
      * Inner class CanvasPane - the actual canvas component contained in the
      * Canvas frame. This is essentially a JPanel with added capability to
@@ -196,8 +461,9 @@ public class Canvas{
             colorString = color;
         }
 
-        public void draw(Graphics2D graphic){
-            setForegroundColor(colorString);
+        public void draw(Graphics2D graphic, Rectangle2D visible){
+            if(!shape.getBounds2D().intersects(visible)) return;
+            graphic.setColor(getColor(colorString));
             graphic.draw(shape);
             graphic.fill(shape);
         }
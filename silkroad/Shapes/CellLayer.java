@@ -0,0 +1,36 @@
+package Shapes;
+
+/**
+ * A layer of square cells laid on a grid, such as a road. The canvas
+ * paints a cell layer on its background by asking for the colour of the
+ * visible cells only, so a layer with millions of cells needs no shape
+ * object per cell and costs nothing while it is off-screen.
+ *
+ * Column c of the grid covers the pixels from c * size to (c + 1) * size,
+ * and the same goes for rows.
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public interface CellLayer{
+
+    /**
+     * Return the side of every cell.
+     * @return the side of a cell in pixels
+     */
+    int getCellSize();
+
+    /**
+     * Return the smallest block of columns and rows that holds every cell.
+     * @return the bounds of the layer, measured in cells
+     */
+    java.awt.Rectangle getCellBounds();
+
+    /**
+     * Return the colour of a cell.
+     * @param column  the column of the cell
+     * @param row     the row of the cell
+     * @return the colour of the cell, or null if there is no cell there
+     */
+    String getCellColor(int column, int row);
+}
@@ -54,7 +54,15 @@ public class Circle{
             canvas.draw(this, color, 
                 new Ellipse2D.Double(xPosition, yPosition, 
                 diameter, diameter));
-            canvas.wait(10);
+        }
+    }
+
+    /*
+     * Wait for the canvas animation clock between two steps of a slow move.
+     */
+    private void pause(){
+        if(isVisible) {
+            Canvas.getCanvas().getAnimationClock().tick();
         }
     }
 
@@ -137,6 +145,7 @@ public class Circle{
         for(int i = 0; i < distance; i++){
             xPosition += delta;
             draw();
+            pause();
         }
     }
 
@@ -157,6 +166,7 @@ public class Circle{
         for(int i = 0; i < distance; i++){
             yPosition += delta;
             draw();
+            pause();
         }
     }
 
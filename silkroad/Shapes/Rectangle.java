@@ -21,6 +21,7 @@ public class Rectangle{
     private int yPosition;
     private String color;
     private boolean isVisible;
+    private boolean isBackground;
 
     /**
      * Create a new rectangle at default position with default color.
@@ -132,6 +133,7 @@ public class Rectangle{
         for(int i = 0; i < distance; i++){
             xPosition += delta;
             draw();
+            pause();
         }
     }
 
@@ -152,6 +154,7 @@ public class Rectangle{
         for(int i = 0; i < distance; i++){
             yPosition += delta;
             draw();
+            pause();
         }
     }
 
@@ -177,6 +180,16 @@ public class Rectangle{
         draw();
     }
     
+    /**
+     * Choose the canvas layer of the rectangle. Background rectangles are
+     * cached by the canvas and should be used for shapes that rarely change.
+     * @param background true to draw the rectangle on the background layer
+     */
+    public void setBackground(boolean background){
+        isBackground = background;
+        draw();
+    }
+    
     public int getXPosition(){
         return xPosition;
     }
@@ -194,8 +207,16 @@ public class Rectangle{
             Canvas canvas = Canvas.getCanvas();
             canvas.draw(this, color,
                 new java.awt.Rectangle(xPosition, yPosition, 
-                                       width, height));
-            canvas.wait(10);
+                                       width, height), isBackground);
+        }
+    }
+
+    /*
+     * Wait for the canvas animation clock between two steps of a slow move.
+     */
+    private void pause(){
+        if(isVisible) {
+            Canvas.getCanvas().getAnimationClock().tick();
         }
     }
 
@@ -130,6 +130,7 @@ public class Triangle{
         for(int i = 0; i < distance; i++){
             xPosition += delta;
             draw();
+            pause();
         }
     }
 
@@ -150,6 +151,7 @@ public class Triangle{
         for(int i = 0; i < distance; i++){
             yPosition += delta;
             draw();
+            pause();
         }
     }
 
@@ -184,7 +186,15 @@ public class Triangle{
             int[] xpoints = { xPosition, xPosition + (width/2), xPosition - (width/2) };
             int[] ypoints = { yPosition, yPosition + height, yPosition + height };
             canvas.draw(this, color, new Polygon(xpoints, ypoints, 3));
-            canvas.wait(10);
+        }
+    }
+
+    /*
+     * Wait for the canvas animation clock between two steps of a slow move.
+     */
+    private void pause(){
+        if(isVisible) {
+            Canvas.getCanvas().getAnimationClock().tick();
         }
     }
 
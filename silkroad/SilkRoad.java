@@ -1,6 +1,8 @@
+import java.nio.IntBuffer;
 import java.util.*;
-import Shapes.*;
-import Utilities.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import Shapes.Canvas;
 /**
  * The {@code SilkRoad} class represents a system that manages
  * a spiral-shaped road with {@link Robot} and {@link Store} objects
@@ -10,27 +12,100 @@ import Utilities.*;
  * locations, moving robots along the spiral, resupplying stores,
  * rebooting robots, and calculating the total profit in terms of tenges.</p>
  * 
- * <p>The road is internally represented using a {@link SpiralRoad} object,
- * and robots/stores are tracked in both lists and {@link TreeMap} structures
- * for efficient access by location.</p>
+ * <p>The road is internally represented using a {@link SpiralRoad} object.
+ * Robots and stores are stored as primitive arrays indexed by location
+ * (current tenges, initial tenges, times emptied and initial location),
+ * with a {@link BitSet} per kind marking the occupied locations so they
+ * can be walked in order without boxing.</p>
+ * 
+ * <p>Rebooting does not walk the whole road. Store tenges are tagged with
+ * the epoch they were written in, and a reboot starts a new epoch, so a
+ * store written before it reads as its initial tenges until it is written
+ * again. Every move is journaled, and while the road is not visible only
+ * the robots that moved are returned home.</p>
+ * 
+ * <p>The total tenges of the robots and of the stores, and the number of
+ * stores holding tenges, are kept up to date by every operation, so
+ * {@link #profit()}, {@link #ok()} and {@link #loadedStores()} answer in
+ * O(1).</p>
+ * 
+ * <p>Besides the lists returned by {@link #stores()} and its siblings, the
+ * road can be read through a reusable {@link Cursor} or exported into an
+ * {@link IntBuffer}, neither of which allocates per entity.</p>
+ * 
+ * <p>Range queries such as {@link #storeTengesBetween(int, int)} are
+ * answered in O(log n) by a {@link RangeIndex} per kind of entity. The
+ * indexes are built by the first range query and kept up to date from
+ * then on, so roads that are never queried do not pay for them.</p>
+ * 
+ * <p>A sparse road only reserves the locations it is told about: the
+ * arrays are indexed by the rank of each location among them, while
+ * distances are still measured between the real locations. Its size
+ * depends on the number of entities, not on the largest location. It is
+ * still drawn, and pictured by {@link #snapshot(int)}, at its real
+ * locations on the spiral.</p>
+ * 
+ * <p>The simulation only works with locations, coordinates and tenges;
+ * the {@link Robot} and {@link Store} objects that draw each entity are
+ * created when {@link #makeVisible()} is called, and they, like the
+ * {@link SpiralRoad}, only build their shapes the first time they are
+ * shown, so a road that is never shown never touches the {@code Shapes}
+ * package.</p>
+ * 
+ * <p>Moves, collections and failed operations are reported to the
+ * registered {@link SilkRoadListener}s; with no listener registered
+ * the road produces no output at all.</p>
  * 
  * <p>Once the system is marked as finished, no further modifications
  * to robots or stores can be made.</p>
  * 
+ * <p>All state belongs to the instance, so separate roads can be used
+ * from different threads at the same time; a single road is not
+ * synchronized and must stay on one thread at a time.</p>
+ * 
  * @author Brayan Valdes - Yan Guerra
  * @version 17/09/2025
  */
 public class SilkRoad
 {
-    private static int length;
-    private static boolean isFinished;
-    private Rectangle[] positions;
+    private int length;
+    private boolean isFinished;
+    private int[] coordinates;
     private SpiralRoad spiral;
-    private ArrayList<Robot> robots;
-    private ArrayList<Store> stores;
-    private TreeMap<Integer, Robot> mapRobots;
-    private TreeMap<Integer, Store> mapStores;
-    private TreeMap<Integer, int[]> profitPerMove;
+    private BitSet storeAt;
+    private int[] storeTenges;
+    private int[] storeInitial;
+    private int[] storeTimes;
+    private int[] storeEpoch;
+    private int epoch;
+    private int storeTotal;
+    private int initialTotal;
+    private int loadedStores;
+    private int initialLoaded;
+    private int robotTotal;
+    private RangeIndex storeIndex;
+    private RangeIndex robotIndex;
+    private BitSet robotAt;
+    private int[] robotTenges;
+    private int[] robotOrigin;
+    private Store[] storeViews;
+    private Robot[] robotViews;
+    private BitSet profitAt;
+    private int[] profitBefore;
+    private int[] profitAfter;
+    private int[] moved;
+    private int movedCount;
+    private int[] robotKeys;
+    private int[] storeKeys;
+    private int[] planTenges;
+    private boolean[] storeTaken;
+    private int movingRobots;
+    private int movingStores;
+    private MaxIndex reachLeft;
+    private MaxIndex reachRight;
+    private Moves moves;
+    private Robot[] robotBuffer;
+    private SilkRoadListener[] listeners = new SilkRoadListener[0];
     
     /**
      * Creates a {@code SilkRoad} of the specified length.
@@ -41,28 +116,42 @@ public class SilkRoad
         if (length >= 0){
             this.length = length;
             isFinished = false;
-            spiral = new SpiralRoad(length);
-            positions = spiral.getArrRectangles();
-            robots = new ArrayList<>();
-            stores = new ArrayList<>();
-            mapRobots = new TreeMap<>();
-            mapStores = new TreeMap<>();
-            profitPerMove = new TreeMap<>();
-        } else isFinished = true;
+            createStorage();
+        } else {
+            isFinished = true;
+            createStorage();
+        }
     }
     
-    public SilkRoad(int[][] days){
-        length = days[0][1];
-        for (int[] elem: days){
-            if (elem[1]>length) length = elem[1];
+    /**
+     * Creates a sparse {@code SilkRoad} of the specified length where only
+     * the given locations can hold robots or stores. Storage grows with the
+     * number of distinct locations instead of with the length.
+     * 
+     * @param length    the number of positions of the road.
+     * @param locations the locations that robots and stores may occupy.
+     */
+    public SilkRoad(int length, int[] locations){
+        if (length >= 0){
+            this.length = length;
+            isFinished = false;
+            coordinates = compress(locations, length);
+            createStorage();
+        } else {
+            isFinished = true;
+            createStorage();
         }
-        isFinished = false;
-        spiral = new SpiralRoad(length);
-        positions = spiral.getArrRectangles();
-        robots = new ArrayList<>();
-        stores = new ArrayList<>();
-        mapRobots = new TreeMap<>();
-        mapStores = new TreeMap<>();
+    }
+    
+    /**
+     * Creates a {@code SilkRoad} holding the robots and stores of the given
+     * days, as long as the largest location among them.
+     * 
+     * @param days the events that place robots ({@code {1, location}})
+     *             and stores ({@code {2, location, tenges}}).
+     */
+    public SilkRoad(int[][] days){
+        this(maxLocation(days));
         for (int[] elem: days){
             int isRobotOrStore = elem[0];
             int position = elem[1];
@@ -73,6 +162,124 @@ public class SilkRoad
         }
     }
     
+    /**
+     * Returns the largest location among some days.
+     */
+    static int maxLocation(int[][] days){
+        int max = days[0][1];
+        for (int[] elem: days){
+            if (elem[1] > max) max = elem[1];
+        }
+        return max;
+    }
+    
+    /**
+     * Returns the location of every event of some days.
+     */
+    static int[] locations(int[][] days){
+        int[] locations = new int[days.length];
+        for (int i = 0; i < days.length; i++){
+            locations[i] = days[i][1];
+        }
+        return locations;
+    }
+    
+    /**
+     * Returns the distinct locations of a road of the given length, sorted.
+     */
+    static int[] compress(int[] locations, int length){
+        int[] sorted = locations.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int location: sorted){
+            if (location >= 1 && location <= length && (count == 0 || sorted[count - 1] != location)){
+                sorted[count] = location;
+                count++;
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+    
+    /**
+     * Creates the spiral of the whole length and the empty arrays for a 
+     * road of that length, or for its reserved locations if it is sparse.
+     */
+    private void createStorage(){
+        int slots = coordinates == null ? length : coordinates.length;
+        spiral = new SpiralRoad(length);
+        storeAt = new BitSet(slots + 1);
+        storeTenges = new int[slots + 1];
+        storeInitial = new int[slots + 1];
+        storeTimes = new int[slots + 1];
+        storeEpoch = new int[slots + 1];
+        epoch = 0;
+        storeTotal = 0;
+        initialTotal = 0;
+        loadedStores = 0;
+        initialLoaded = 0;
+        robotTotal = 0;
+        storeIndex = null;
+        robotIndex = null;
+        robotAt = new BitSet(slots + 1);
+        robotTenges = new int[slots + 1];
+        robotOrigin = new int[slots + 1];
+        profitAt = new BitSet(slots + 1);
+        profitBefore = new int[slots + 1];
+        profitAfter = new int[slots + 1];
+        moved = new int[16];
+        movedCount = 0;
+        robotKeys = new int[16];
+        storeKeys = new int[16];
+        planTenges = new int[16];
+        storeTaken = new boolean[16];
+        reachLeft = new MaxIndex();
+        reachRight = new MaxIndex();
+        moves = new Moves();
+    }
+    
+    /**
+     * Returns the index used in the arrays for a location (the location
+     * itself, or its rank on a sparse road), or -1 if the road has no
+     * such location.
+     */
+    private int slot(int location){
+        if (location < 1 || location > length) return -1;
+        if (coordinates == null) return location;
+        int index = Arrays.binarySearch(coordinates, location);
+        return index < 0 ? -1 : index + 1;
+    }
+    
+    /**
+     * Returns the location stored at an index of the arrays.
+     */
+    private int location(int slot){
+        return coordinates == null ? slot : coordinates[slot - 1];
+    }
+    
+    /**
+     * Returns the tenges a store holds in the current epoch: what was last 
+     * written to it since the last reboot, or else its initial tenges.
+     */
+    private int tenges(int slot){
+        return storeEpoch[slot] == epoch ? storeTenges[slot] : storeInitial[slot];
+    }
+    
+    /**
+     * Journals the index a robot has just moved to. A journal that would 
+     * hold more moves than the road has locations is abandoned, and the 
+     * next reboot walks every robot instead.
+     */
+    private void journalMove(int slot){
+        if (movedCount < 0) return;
+        if (movedCount == robotTenges.length){
+            movedCount = -1;
+            return;
+        }
+        if (movedCount == moved.length) moved = Arrays.copyOf(moved, 2 * movedCount);
+        moved[movedCount] = slot;
+        movedCount++;
+    }
+    
     /**
      * Places a store at the specified location with an initial amount of tenges.
      *
@@ -80,37 +287,65 @@ public class SilkRoad
      * @param tenges   the initial tenges for the store.
      */
     public void pleaseStore(int location, int tenges){
-        int position = location - 1;
-        if (location <= length && location > 1 && isFinished == false){
-            Rectangle rectangle = positions[position];
-            int xPosition = rectangle.getXPosition();
-            int yPosition = rectangle.getYPosition();
-            Store store = new Store(xPosition, yPosition, tenges);
-            mapStores.put(location, store);
-            stores.add(store);
-        } else System.out.println("error please store");
+        int slot = slot(location);
+        if (slot >= 0 && location > 1 && isFinished == false){
+            hideStore(slot);
+            forgetStore(slot);
+            storeAt.set(slot);
+            storeTenges[slot] = tenges;
+            storeEpoch[slot] = epoch;
+            storeInitial[slot] = tenges;
+            storeTimes[slot] = 0;
+            storeTotal += tenges;
+            initialTotal += tenges;
+            if (storeIndex != null) storeIndex.putInitial(slot, true, tenges);
+            if (tenges > 0){
+                loadedStores++;
+                initialLoaded++;
+            }
+        } else error("error please store");
+    }
+    
+    /**
+     * Takes the store at an index, if any, out of the running totals.
+     */
+    private void forgetStore(int slot){
+        if (!storeAt.get(slot)) return;
+        int tenges = tenges(slot);
+        storeTotal -= tenges;
+        initialTotal -= storeInitial[slot];
+        if (tenges > 0) loadedStores--;
+        if (storeInitial[slot] > 0) initialLoaded--;
     }
     
     /**
      * Removes the store located at the specified position.
+     * The store is found directly by its location: O(1) on a dense road
+     * and O(log n) on a sparse one.
      *
      * @param location the location index on the road.
      */
     public void removeStore(int location){
-        if(location > length || isFinished){
-            System.out.println("error remove store");
+        int slot = slot(location);
+        if(slot < 0 || isFinished){
+            error("error remove store");
             return;
         }
-        int xPosition = positions[location-1].getXPosition();
-        int yPosition = positions[location-1].getYPosition();
-        for (int i = 0; i < stores.size(); i++){
-            Store store = stores.get(i);
-            if (xPosition == store.getX() && yPosition == store.getY()){
-                store.makeInvisible();
-                stores.remove(i);
-            }
+        hideStore(slot);
+        forgetStore(slot);
+        storeAt.clear(slot);
+        if (storeIndex != null) storeIndex.putInitial(slot, false, 0);
+    }
+    
+    /**
+     * Removes the stores located at each of the specified positions.
+     *
+     * @param locations the location indexes on the road.
+     */
+    public void removeStores(int[] locations){
+        for (int location: locations){
+            removeStore(location);
         }
-        mapStores.remove(location);
     }
     
     /**
@@ -120,75 +355,157 @@ public class SilkRoad
      * @param tenges   the initial tenges for the robot.
      */
     public void pleaseRobot(int location){
-        int position = location - 1;
-        if (location <= length && location >= 1 && isFinished == false){
-            Rectangle rectangle = positions[position];
-            int xPosition = rectangle.getXPosition();
-            int yPosition = rectangle.getYPosition();
-            Robot robot = new Robot(xPosition, yPosition, location);
-            mapRobots.put(location, robot);
-            robots.add(robot);
+        int slot = slot(location);
+        if (slot >= 0 && isFinished == false){
+            hideRobot(slot);
+            if (robotAt.get(slot)) robotTotal -= robotTenges[slot];
+            robotAt.set(slot);
+            robotTenges[slot] = 0;
+            robotOrigin[slot] = slot;
+            if (robotIndex != null) robotIndex.put(slot, true, 0);
         }
     }
     
     /**
      * Removes the robot located at the specified position.
+     * The robot is found directly by its location: O(1) on a dense road
+     * and O(log n) on a sparse one.
      *
      * @param location the location index on the road.
      */
     public void removeRobot(int location){
-        if(location > length || isFinished){
-            System.out.println("error remove robot");
+        int slot = slot(location);
+        if(slot < 0 || isFinished){
+            error("error remove robot");
             return;
         }
-        int xPosition = positions[location-1].getXPosition();
-        int yPosition = positions[location-1].getYPosition();
-        for (int i = 0; i < robots.size(); i++){
-            Robot robot = robots.get(i);
-            if (xPosition == robot.getX() && yPosition == robot.getY()){
-                robot.makeInvisible();
-                robots.remove(i);
-            }
+        hideRobot(slot);
+        if (robotAt.get(slot)) robotTotal -= robotTenges[slot];
+        robotAt.clear(slot);
+        if (robotIndex != null) robotIndex.put(slot, false, 0);
+    }
+    
+    /**
+     * Removes the robots located at each of the specified positions.
+     *
+     * @param locations the location indexes on the road.
+     */
+    public void removeRobots(int[] locations){
+        for (int location: locations){
+            removeRobot(location);
         }
-        mapRobots.remove(location);
     }
     
     /**
      * Moves a robot from its current location to a new location,
      * consuming tenges equal to the distance traveled.
      * If the new location has a store, the robot collects its tenges.
+     * A robot cannot move onto a location already taken by another robot.
      *
      * @param location the current location of the robot.
      * @param meters   the number of positions to move forward.
      */
     public void moveRobot(int location, int meters){
-        int newLocation = location + meters;
-        if(mapRobots.containsKey(location) && newLocation <= length && isFinished == false){
-            Robot robot = mapRobots.get(location);
-            Rectangle rectangle = positions[newLocation - 1];
-            int x = rectangle.getXPosition();
-            int y = rectangle.getYPosition();
-            robot.moveTo(x,y);
-            System.out.println(robot.getTenges());
-            robot.setTenges(robot.getTenges() - Math.abs(meters));
-            mapRobots.put(newLocation, robot);
-            mapRobots.remove(location); 
-            if (mapStores.containsKey(newLocation)){
-                int newTenges = robot.getTenges() + mapStores.get(newLocation).getTenges();
-                profitPerMove.put(newLocation, new int[]{robot.getTenges(), newTenges});
-                robot.setTenges(newTenges);
-                mapStores.get(newLocation).removeTenges();
-                mapStores.get(newLocation).increaseTimes();
+        int from = slot(location);
+        int to = slot(location + meters);
+        if (from < 0 || to < 0 || !move(from, to)){
+            error("Error move robot");
+        }
+    }
+    
+    /**
+     * Performs {@link #moveRobot(int, int)} between two indexes of the
+     * arrays and reports whether the robot could actually move.
+     */
+    private boolean move(int location, int newLocation){
+        if (!robotAt.get(location) || isFinished) return false;
+        if (newLocation != location && robotAt.get(newLocation)) return false;
+        int meters = location(newLocation) - location(location);
+        int before = robotTenges[location];
+        int tenges = before - Math.abs(meters);
+        int origin = robotOrigin[location];
+        robotAt.clear(location);
+        robotAt.set(newLocation);
+        robotOrigin[newLocation] = origin;
+        journalMove(newLocation);
+        if (robotViews != null && robotViews[location] != null){
+            Robot view = robotViews[location];
+            robotViews[location] = null;
+            robotViews[newLocation] = view;
+            view.moveTo(cellX(newLocation), cellY(newLocation));
+        }
+        if (storeAt.get(newLocation)){
+            int collected = tenges(newLocation);
+            int newTenges = tenges + collected;
+            profitAt.set(newLocation);
+            profitBefore[newLocation] = tenges;
+            profitAfter[newLocation] = newTenges;
+            tenges = newTenges;
+            storeTenges[newLocation] = 0;
+            storeEpoch[newLocation] = epoch;
+            storeTotal -= collected;
+            if (collected > 0) loadedStores--;
+            if (storeIndex != null) storeIndex.put(newLocation, true, 0);
+            storeTimes[newLocation] += 1;
+            if (storeViews != null && storeViews[newLocation] != null){
+                storeViews[newLocation].removeTenges();
             }
-        } else {
-            System.out.println("Error move robot");
+            for (SilkRoadListener listener: listeners){
+                listener.storeCollected(location(newLocation), collected);
+            }
+        }
+        robotTenges[newLocation] = tenges;
+        robotTotal += tenges - before;
+        if (robotIndex != null){
+            robotIndex.put(location, false, 0);
+            robotIndex.put(newLocation, true, tenges);
+        }
+        for (SilkRoadListener listener: listeners){
+            listener.robotMoved(location(location), location(newLocation), tenges);
+        }
+        return true;
+    }
+    
+    /**
+     * Registers a listener for the moves, collections and errors of this road.
+     *
+     * @param listener the listener to notify.
+     */
+    public void addListener(SilkRoadListener listener){
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+    
+    /**
+     * Stops notifying a previously registered listener.
+     *
+     * @param listener the listener to remove.
+     */
+    public void removeListener(SilkRoadListener listener){
+        for (int i = 0; i < listeners.length; i++){
+            if (listeners[i] == listener){
+                SilkRoadListener[] remaining = new SilkRoadListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Reports a failed operation to every listener.
+     */
+    private void error(String message){
+        for (SilkRoadListener listener: listeners){
+            listener.error(message);
         }
     }
     
     /**
      * Moves all robots along the Silk Road according to the profit they can obtain from nearby stores.
      * <p>
-     * For each robot in {@code mapRobots}, the method evaluates every store in {@code mapStores} 
+     * For each robot on the road, in location order, the method evaluates every store 
      * to determine whether moving to that store is profitable. 
      * The profit is calculated as:
      * </p>
@@ -204,8 +521,8 @@ public class SilkRoad
      * 
      * <p><b>Logic summary:</b></p>
      * <ul>
-     *   <li>Iterates through all robots stored in {@code mapRobots}.</li>
-     *   <li>For each robot, checks every store in {@code mapStores}.</li>
+     *   <li>Iterates through all robots in location order.</li>
+     *   <li>For each robot, checks every store in location order.</li>
      *   <li>Computes the movement cost and net profit.</li>
      *   <li>If the profit is positive, moves the robot to the store's position.</li>
      *   <li>Updates the robot’s new position after the movement.</li>
@@ -215,48 +532,228 @@ public class SilkRoad
      * position update, store collection, and internal state consistency of both 
      * robots and stores.</p>
      *
+     * <p>The stores are not actually checked one by one. A store at {@code x} 
+     * with {@code t} tenges is profitable for a robot at {@code p} when 
+     * {@code t + x > p} if it lies before the robot, and when 
+     * {@code t - x > -p} if it lies after it. Two {@link MaxIndex}es over 
+     * the stores, of {@code t + x} and of {@code t - x}, find the next 
+     * profitable store in location order in O(log s), so a day costs about 
+     * O((r + s) log s) for r robots and s stores. Stores are visited in the 
+     * same order as the scan described above, and moves onto a location 
+     * taken by another robot are rejected in the same way, so the moves, 
+     * collections and notifications are exactly those of the scan.</p>
+     *
+     * <p>The moves of the day are first planned on copies of the tenges and 
+     * of the occupied stores, then made in order with 
+     * {@link #moveRobot(int, int)}'s own logic.</p>
+     *
+     * <p>The robots' and stores' locations, the indexes and the plan are kept 
+     * in buffers that are reused between calls, so once the road has warmed 
+     * up a call performs no heap allocation.</p>
+     *
      * @see #moveRobot(int, int)
+     * @see #moveRobots(ForkJoinPool)
      */
     public void moveRobots() { 
-        List<Integer> robotKeys = new ArrayList<>(mapRobots.keySet());
-        for (int keyRobot : robotKeys) {
-            Robot robot = mapRobots.get(keyRobot); 
-            int newPosition = keyRobot;
-            for (int key : mapStores.keySet()) {
-                Store store = mapStores.get(key);
-                int cost = Math.abs(newPosition - key);
-                int storeTenges = store.getTenges();
-                int profit = storeTenges - cost;
-                if (profit > 0) {
-                    int distance = key - newPosition;
-                    moveRobot(newPosition, distance);
-                    newPosition += distance;
+        collectMoving();
+        moves.clear();
+        planSegment(0, movingStores, 0, movingRobots, reachLeft, reachRight, moves);
+        applyMoves(moves);
+    }
+    
+    /**
+     * Moves all robots exactly like {@link #moveRobots()}, planning 
+     * independent stretches of the road in parallel.
+     * <p>
+     * A store at {@code x} with {@code t} tenges can only attract robots 
+     * between {@code x - t + 1} and {@code x + t - 1}, and a robot only ever 
+     * moves onto stores that can attract it from where it stands. Merging 
+     * the overlapping ranges of the stores splits the road into segments 
+     * that no robot leaves and no two robots share a store across, so each 
+     * segment is planned on its own by a task of the pool. The plans are 
+     * then made one segment after another, in location order, which is the 
+     * order the robots move in sequentially, so stores, robots, 
+     * {@link #profitPerMove()}, the emptied counters and the notifications 
+     * to listeners are identical to {@link #moveRobots()}.
+     * </p>
+     *
+     * @param pool the pool that plans the segments.
+     */
+    public void moveRobots(ForkJoinPool pool){
+        collectMoving();
+        int[] storeFrom = new int[movingStores + 1];
+        long[] start = new long[movingStores];
+        long[] end = new long[movingStores];
+        int segments = 0;
+        for (int j = 0; j < movingStores; j++){
+            int first = j;
+            long low = (long) location(storeKeys[j]) - planTenges[j] + 1;
+            long high = (long) location(storeKeys[j]) + planTenges[j] - 1;
+            while (segments > 0 && end[segments - 1] >= low){
+                segments--;
+                low = Math.min(low, start[segments]);
+                high = Math.max(high, end[segments]);
+                first = storeFrom[segments];
+            }
+            storeFrom[segments] = first;
+            start[segments] = low;
+            end[segments] = high;
+            segments++;
+        }
+        storeFrom[segments] = movingStores;
+        int[] robotFrom = new int[segments + 1];
+        int[] robotTo = new int[segments];
+        int robot = 0;
+        for (int c = 0; c < segments; c++){
+            while (robot < movingRobots && location(robotKeys[robot]) < start[c]) robot++;
+            robotFrom[c] = robot;
+            while (robot < movingRobots && location(robotKeys[robot]) <= end[c]) robot++;
+            robotTo[c] = robot;
+        }
+        robotFrom[segments] = movingRobots;
+        Moves[] plans = new Moves[segments];
+        pool.invoke(new PlanTask(storeFrom, robotFrom, robotTo, plans, 0, segments));
+        for (Moves plan: plans){
+            if (plan != null) applyMoves(plan);
+        }
+    }
+    
+    /**
+     * Copies the robots' locations, and the stores that hold tenges with 
+     * their tenges and whether a robot stands on them, into the buffers 
+     * the plans are made on.
+     */
+    private void collectMoving(){
+        int robotCount = robotAt.cardinality();
+        if (robotKeys.length < robotCount) robotKeys = new int[Math.max(robotCount, 2 * robotKeys.length)];
+        movingRobots = 0;
+        for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)) {
+            robotKeys[movingRobots] = key;
+            movingRobots++;
+        }
+        int storeCount = storeAt.cardinality();
+        if (storeKeys.length < storeCount){
+            int size = Math.max(storeCount, 2 * storeKeys.length);
+            storeKeys = new int[size];
+            planTenges = new int[size];
+            storeTaken = new boolean[size];
+        }
+        movingStores = 0;
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)) {
+            int tenges = tenges(key);
+            if (tenges > 0){
+                storeKeys[movingStores] = key;
+                planTenges[movingStores] = tenges;
+                storeTaken[movingStores] = robotAt.get(key);
+                movingStores++;
+            }
+        }
+    }
+    
+    /**
+     * Plans the moves of the robots {@code robotFrom..robotTo-1} among the 
+     * stores {@code storeFrom..storeTo-1} of the buffers, in the order 
+     * {@link #moveRobots()} makes them. Only the entries of the buffers in 
+     * those ranges are touched, so disjoint segments can be planned at the 
+     * same time.
+     * <p>
+     * The scan skips the stores other robots stand on. They are kept out of 
+     * the indexes instead of being stepped over, so every search either 
+     * finds a move or ends the robot's turn, and a plan makes at most one 
+     * search per move and two per robot, however many stores are taken.
+     * </p>
+     */
+    private void planSegment(int storeFrom, int storeTo, int robotFrom, int robotTo,
+                             MaxIndex left, MaxIndex right, Moves plan){
+        left.reset(storeTo - storeFrom);
+        right.reset(storeTo - storeFrom);
+        for (int j = storeFrom; j < storeTo; j++) reach(left, right, storeFrom, j);
+        for (int i = robotFrom; i < robotTo; i++) {
+            int position = robotKeys[i];
+            int standing = Arrays.binarySearch(storeKeys, storeFrom, storeTo, position);
+            int after = standing >= 0 ? standing : -standing - 1;
+            int next = left.firstAbove(0, after - storeFrom, location(position));
+            if (next >= 0) {
+                next += storeFrom;
+                plan.add(position, storeKeys[next]);
+                if (standing >= 0) {
+                    storeTaken[standing] = false;
+                    reach(left, right, storeFrom, standing);
                 }
+                storeTaken[next] = true;
+                standing = next;
+                position = storeKeys[next];
+                planTenges[next] = 0;
+                reach(left, right, storeFrom, next);
+                next++;
+            } else {
+                next = after;
+                if (standing >= 0 && planTenges[standing] > 0) {
+                    plan.add(position, position);
+                    planTenges[standing] = 0;
+                    reach(left, right, storeFrom, standing);
+                    next++;
+                }
+            }
+            while ((next = right.firstAbove(next - storeFrom, storeTo - storeFrom, -(long) location(position))) >= 0) {
+                next += storeFrom;
+                plan.add(position, storeKeys[next]);
+                if (standing >= 0) {
+                    storeTaken[standing] = false;
+                    reach(left, right, storeFrom, standing);
+                }
+                storeTaken[next] = true;
+                standing = next;
+                position = storeKeys[next];
+                planTenges[next] = 0;
+                reach(left, right, storeFrom, next);
+                next++;
             }
         }
     }
     
+    /**
+     * Updates the reach of a store of the buffers in the indexes of its 
+     * segment after its planned tenges, or whether a robot stands on it, 
+     * have changed. A store a robot stands on attracts no other robot.
+     */
+    private void reach(MaxIndex left, MaxIndex right, int storeFrom, int store){
+        long tenges = planTenges[store];
+        int location = location(storeKeys[store]);
+        left.set(store - storeFrom, storeTaken[store] ? Long.MIN_VALUE : tenges + location);
+        right.set(store - storeFrom, storeTaken[store] ? Long.MIN_VALUE : tenges - location);
+    }
+    
+    /**
+     * Makes the moves of a plan, in order.
+     */
+    private void applyMoves(Moves plan){
+        for (int k = 0; k < plan.size; k += 2) {
+            move(plan.pairs[k], plan.pairs[k + 1]);
+        }
+    }
+    
     /**
      * Returns a 2D array representing the profit collected by each robot per move.
      * <p>
      * Each row in the returned array corresponds to a single robot and contains:
      * <ul>
-     *   <li><b>index 0:</b> the robot’s current position (key in {@code profitPerMove})</li>
+     *   <li><b>index 0:</b> the location where the robot collected</li>
      *   <li><b>index 1:</b> the profit gained in the first move</li>
      *   <li><b>index 2:</b> the profit gained in the second move</li>
      * </ul>
-     * The method iterates through the {@code profitPerMove} map, which stores 
-     * each robot’s profits across movements, and converts it into a two-dimensional array.
+     * The method iterates through the locations where a store was collected, whose 
+     * tenges before and after collecting are kept in primitive arrays indexed by 
+     * location, and converts them into a two-dimensional array.
      * </p>
      *
      * @return a 2D integer array where each row represents a robot and its profits per move.
      */
     public int[][] profitPerMove(){
-        int[][] profitList = new int[profitPerMove.size()][3];
+        int[][] profitList = new int[profitAt.cardinality()][3];
         int i = 0;
-        for (int key: profitPerMove.keySet()){
-            int[] tengesList = profitPerMove.get(key);
-            profitList[i] = new int[]{key,tengesList[0],tengesList[1]};
+        for (int key = profitAt.nextSetBit(0); key >= 0; key = profitAt.nextSetBit(key + 1)){
+            profitList[i] = new int[]{location(key),profitBefore[key],profitAfter[key]};
             i++;
         }
         return profitList;
@@ -264,31 +761,92 @@ public class SilkRoad
 
     /**
      * Restores all stores to their initial amount of tenges.
+     * <p>
+     * Only the epoch changes, in O(1): every store then reads as its 
+     * initial tenges until it is written again. When the road is visible, 
+     * every store is still repainted, so that the drawing keeps its order.
+     * </p>
      */
     public void resuplyStores(){
-        for (int i = 0; i < stores.size(); i++){
-            stores.get(i).rebootStore();
+        if (storeViews != null){
+            for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+                if (storeViews[key] != null) storeViews[key].rebootStore();
+            }
         }
+        storeTotal = initialTotal;
+        loadedStores = initialLoaded;
+        if (storeIndex != null) storeIndex.revert();
+        if (epoch == Integer.MAX_VALUE){
+            System.arraycopy(storeInitial, 0, storeTenges, 0, storeTenges.length);
+            Arrays.fill(storeEpoch, 0);
+            epoch = 0;
+        } else epoch++;
     }
     
     /**
      * Returns all robots to their initial positions.
+     * <p>
+     * Only the robots found at the end of a journaled move are returned, 
+     * so the cost depends on the moves since the last return and not on 
+     * the number of robots. When the road is visible every robot is 
+     * returned, so that all of them are redrawn on top of the stores. 
+     * Robots that return to the same location merge into one.
+     * </p>
      */
     public void returnRobots(){
-        TreeMap<Integer, Robot> restorePos = new TreeMap<>();
-        for(int key: mapRobots.keySet()){
-            Robot robot = mapRobots.get(key);
-            robot.rebootRobot();
-            robot.setTenges(0);
-            restorePos.put(robot.getInitialLocation(), robot);
+        if (robotViews != null) movedCount = -1;
+        int size = movedCount < 0 ? robotAt.cardinality() : movedCount;
+        if (robotKeys.length < size) robotKeys = new int[Math.max(size, 2 * robotKeys.length)];
+        if (robotViews != null && (robotBuffer == null || robotBuffer.length < size)){
+            robotBuffer = new Robot[robotKeys.length];
         }
-        
-        mapRobots.clear();
-        mapRobots = restorePos;
+        int count = 0;
+        if (movedCount < 0){
+            for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)){
+                count = liftRobot(key, count);
+            }
+        } else {
+            for (int i = 0; i < movedCount; i++){
+                if (robotAt.get(moved[i])) count = liftRobot(moved[i], count);
+            }
+        }
+        for (int i = 0; i < count; i++){
+            int origin = robotKeys[i];
+            robotAt.set(origin);
+            robotTenges[origin] = 0;
+            robotOrigin[origin] = origin;
+            if (robotIndex != null) robotIndex.put(origin, true, 0);
+            if (robotViews != null && robotBuffer[i] != null){
+                Robot robot = robotBuffer[i];
+                robotBuffer[i] = null;
+                robot.rebootRobot();
+                if (robotViews[origin] != null) robotViews[origin].makeInvisible();
+                robotViews[origin] = robot;
+            }
+        }
+        movedCount = 0;
+        robotTotal = 0;
+    }
+    
+    /**
+     * Takes the robot at an index off the road, keeping its origin and its 
+     * view at a position of the buffers, and returns the next position.
+     */
+    private int liftRobot(int slot, int count){
+        robotAt.clear(slot);
+        robotKeys[count] = robotOrigin[slot];
+        if (robotIndex != null) robotIndex.put(slot, false, 0);
+        if (robotViews != null){
+            robotBuffer[count] = robotViews[slot];
+            robotViews[slot] = null;
+        }
+        return count + 1;
     }
     
     /**
      * Reboots the entire road, resupplying stores and returning robots.
+     * Its cost depends on the moves made since the last reboot, not on 
+     * the number of robots and stores on the road.
      */
     public void reboot(){
         resuplyStores();
@@ -296,17 +854,43 @@ public class SilkRoad
     }
     
     /**
-     * Calculates the total profit by summing the tenges
-     * of all robots currently on the road.
+     * Returns the total profit, the sum of the tenges
+     * of all robots currently on the road, in O(1).
      *
      * @return the total tenges held by all robots.
      */
     public int profit(){
-        int sumTenges = 0;
-        for(Robot robot: robots){
-            sumTenges += robot.getTenges();
+        return robotTotal;
+    }
+    
+    /**
+     * Takes an immutable picture of the road as it is now, which can be
+     * drawn later or on another thread.
+     *
+     * @param day the contest day the picture belongs to.
+     * @return a {@link RoadSnapshot} of the stores and robots.
+     */
+    public RoadSnapshot snapshot(int day){
+        int[] storeCells = new int[storeAt.cardinality()];
+        int[] storeInitials = new int[storeCells.length];
+        boolean[] storeEmptied = new boolean[storeCells.length];
+        int store = 0;
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+            storeCells[store] = location(key) - 1;
+            storeInitials[store] = storeInitial[key];
+            storeEmptied[store] = tenges(key) != storeInitial[key];
+            store++;
         }
-        return sumTenges;
+        int[] robotCells = new int[robotAt.cardinality()];
+        int[] robotOrigins = new int[robotCells.length];
+        int robot = 0;
+        for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)){
+            robotCells[robot] = location(key) - 1;
+            robotOrigins[robot] = location(robotOrigin[key]) - 1;
+            robot++;
+        }
+        return new RoadSnapshot(day, profit(), length, storeCells, storeInitials,
+                                storeEmptied, robotCells, robotOrigins);
     }
     
     /**
@@ -316,8 +900,8 @@ public class SilkRoad
      */
     public ArrayList<int[]> stores(){
         ArrayList<int[]> storTenges = new ArrayList<>();
-        for (Integer key: mapStores.keySet()){
-            storTenges.add(new int[]{key, mapStores.get(key).getTenges()});
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+            storTenges.add(new int[]{location(key), tenges(key)});
         }
         return storTenges;
     }
@@ -327,10 +911,10 @@ public class SilkRoad
      * <p>
      * Each element in the returned list is an {@code int[]} array containing:
      * <ul>
-     *   <li><b>index 0:</b> the store’s position (key in {@code mapStores})</li>
+     *   <li><b>index 0:</b> the store’s position</li>
      *   <li><b>index 1:</b> the number of times the store has been emptied</li>
      * </ul>
-     * Only stores whose {@code getTimes()} value is greater than zero 
+     * Only stores whose times counter is greater than zero 
      * (meaning they were visited and emptied by a robot) are included.
      * </p>
      *
@@ -339,9 +923,9 @@ public class SilkRoad
      */
     public ArrayList<int[]> emptiedStores(){
         ArrayList<int[]> emptiedStores = new ArrayList<>();
-        for (Integer key: mapStores.keySet()){
-            if (mapStores.get(key).getTimes() > 0){
-                emptiedStores.add(new int[]{key, mapStores.get(key).getTimes()});
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+            if (storeTimes[key] > 0){
+                emptiedStores.add(new int[]{location(key), storeTimes[key]});
             }
         }
         return emptiedStores;
@@ -353,38 +937,306 @@ public class SilkRoad
      * @return an {@code ArrayList} of int arrays {location, tenges}.
      */
     public ArrayList<int[]> robots(){
-        ArrayList<int[]> robotTenges = new ArrayList<>();
-        for (Integer key: mapRobots.keySet()){
-            robotTenges.add(new int[]{key, mapRobots.get(key).getTenges()});
+        ArrayList<int[]> robotList = new ArrayList<>();
+        for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)){
+            robotList.add(new int[]{location(key), robotTenges[key]});
+        }
+        return robotList;
+    }
+    
+    /**
+     * Returns the total tenges held by the stores between two locations.
+     *
+     * @param from the first location, inclusive.
+     * @param to   the last location, inclusive.
+     * @return the sum of the current tenges of those stores.
+     */
+    public int storeTengesBetween(int from, int to){
+        buildIndexes();
+        return storeIndex.sum(firstSlot(from), lastSlot(to));
+    }
+    
+    /**
+     * Returns the number of stores between two locations.
+     *
+     * @param from the first location, inclusive.
+     * @param to   the last location, inclusive.
+     * @return the number of stores.
+     */
+    public int storesBetween(int from, int to){
+        buildIndexes();
+        return storeIndex.count(firstSlot(from), lastSlot(to));
+    }
+    
+    /**
+     * Returns the most tenges held by a single store between two locations.
+     *
+     * @param from the first location, inclusive.
+     * @param to   the last location, inclusive.
+     * @return the largest current tenges of those stores, or 
+     *         {@link Integer#MIN_VALUE} if there are no stores.
+     */
+    public int maxStoreTengesBetween(int from, int to){
+        buildIndexes();
+        return storeIndex.max(firstSlot(from), lastSlot(to));
+    }
+    
+    /**
+     * Returns the total tenges held by the robots between two locations.
+     *
+     * @param from the first location, inclusive.
+     * @param to   the last location, inclusive.
+     * @return the sum of the tenges of those robots.
+     */
+    public int robotTengesBetween(int from, int to){
+        buildIndexes();
+        return robotIndex.sum(firstSlot(from), lastSlot(to));
+    }
+    
+    /**
+     * Returns the number of robots between two locations.
+     *
+     * @param from the first location, inclusive.
+     * @param to   the last location, inclusive.
+     * @return the number of robots.
+     */
+    public int robotsBetween(int from, int to){
+        buildIndexes();
+        return robotIndex.count(firstSlot(from), lastSlot(to));
+    }
+    
+    /**
+     * Builds the range indexes from the current state of the road, unless 
+     * they already exist.
+     */
+    private void buildIndexes(){
+        if (storeIndex != null) return;
+        storeIndex = new RangeIndex(storeTenges.length);
+        robotIndex = new RangeIndex(robotTenges.length);
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+            storeIndex.putInitial(key, true, storeInitial[key]);
+            if (tenges(key) != storeInitial[key]) storeIndex.put(key, true, tenges(key));
+        }
+        for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)){
+            robotIndex.put(key, true, robotTenges[key]);
         }
-        return robotTenges;
+    }
+    
+    /**
+     * Returns the first index of the arrays at or after a location.
+     */
+    private int firstSlot(int location){
+        if (coordinates == null) return Math.max(location, 1);
+        int index = Arrays.binarySearch(coordinates, location);
+        return (index < 0 ? -index - 1 : index) + 1;
+    }
+    
+    /**
+     * Returns the last index of the arrays at or before a location.
+     */
+    private int lastSlot(int location){
+        if (coordinates == null) return Math.min(location, length);
+        int index = Arrays.binarySearch(coordinates, location);
+        return (index < 0 ? -index - 2 : index) + 1;
+    }
+    
+    /**
+     * Returns a cursor over the stores, in location order.
+     *
+     * @return a new {@link Cursor} positioned before the first store.
+     */
+    public Cursor storeCursor(){
+        return new Cursor(Cursor.STORES);
+    }
+    
+    /**
+     * Returns a cursor over the stores that have been emptied at least 
+     * once, in location order.
+     *
+     * @return a new {@link Cursor} positioned before the first emptied store.
+     */
+    public Cursor emptiedStoreCursor(){
+        return new Cursor(Cursor.EMPTIED);
+    }
+    
+    /**
+     * Returns a cursor over the robots, in location order.
+     *
+     * @return a new {@link Cursor} positioned before the first robot.
+     */
+    public Cursor robotCursor(){
+        return new Cursor(Cursor.ROBOTS);
+    }
+    
+    /**
+     * Writes the stores into a buffer as consecutive pairs 
+     * {@code location, tenges}, the same values as {@link #stores()}.
+     * Only whole pairs are written; stores that do not fit are left out.
+     *
+     * @param buffer the buffer to fill from its current position; an array 
+     *               can be passed with {@link IntBuffer#wrap(int[])}.
+     * @return the number of stores written.
+     */
+    public int exportStores(IntBuffer buffer){
+        int count = 0;
+        for (int key = storeAt.nextSetBit(0); key >= 0 && buffer.remaining() >= 2; key = storeAt.nextSetBit(key + 1)){
+            buffer.put(location(key)).put(tenges(key));
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the stores emptied at least once into a buffer as consecutive 
+     * pairs {@code location, times}, the same values as 
+     * {@link #emptiedStores()}. Only whole pairs are written.
+     *
+     * @param buffer the buffer to fill from its current position.
+     * @return the number of stores written.
+     */
+    public int exportEmptiedStores(IntBuffer buffer){
+        int count = 0;
+        for (int key = storeAt.nextSetBit(0); key >= 0 && buffer.remaining() >= 2; key = storeAt.nextSetBit(key + 1)){
+            if (storeTimes[key] > 0){
+                buffer.put(location(key)).put(storeTimes[key]);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the robots into a buffer as consecutive pairs 
+     * {@code location, tenges}, the same values as {@link #robots()}.
+     * Only whole pairs are written.
+     *
+     * @param buffer the buffer to fill from its current position.
+     * @return the number of robots written.
+     */
+    public int exportRobots(IntBuffer buffer){
+        int count = 0;
+        for (int key = robotAt.nextSetBit(0); key >= 0 && buffer.remaining() >= 2; key = robotAt.nextSetBit(key + 1)){
+            buffer.put(location(key)).put(robotTenges[key]);
+            count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the collections into a buffer as consecutive triples 
+     * {@code location, before, after}, the same values as 
+     * {@link #profitPerMove()}. Only whole triples are written.
+     *
+     * @param buffer the buffer to fill from its current position.
+     * @return the number of collections written.
+     */
+    public int exportProfitPerMove(IntBuffer buffer){
+        int count = 0;
+        for (int key = profitAt.nextSetBit(0); key >= 0 && buffer.remaining() >= 3; key = profitAt.nextSetBit(key + 1)){
+            buffer.put(location(key)).put(profitBefore[key]).put(profitAfter[key]);
+            count++;
+        }
+        return count;
     }
     
     /**
      * Makes the entire road visible, including the spiral,
-     * stores, and robots.
+     * stores, and robots. The {@link Store} and {@link Robot}
+     * objects that draw each entity are created here.
+     * <p>
+     * Everything is drawn inside a single canvas frame, so the
+     * canvas is repainted once instead of once per shape.
+     * </p>
      */
     public void makeVisible(){
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginFrame();
+        try {
+            showAll();
+        } finally {
+            canvas.endFrame();
+        }
+    }
+    
+    /**
+     * Returns the x-coordinate of the spiral cell of an index of the arrays.
+     */
+    private int cellX(int slot){
+        return spiral.getXPosition(location(slot) - 1);
+    }
+    
+    /**
+     * Returns the y-coordinate of the spiral cell of an index of the arrays.
+     */
+    private int cellY(int slot){
+        return spiral.getYPosition(location(slot) - 1);
+    }
+    
+    /**
+     * Draws the spiral and every store and robot, creating missing views.
+     */
+    private void showAll(){
         spiral.makeVisible();
-        for (Store store: stores){
-            store.makeVisible();
+        if (storeViews == null){
+            storeViews = new Store[storeTenges.length];
+            robotViews = new Robot[robotTenges.length];
         }
-        for (Robot robot: robots){
-            robot.makeVisible();
+        for (int key = storeAt.nextSetBit(0); key >= 0; key = storeAt.nextSetBit(key + 1)){
+            if (storeViews[key] == null){
+                storeViews[key] = new Store(cellX(key), cellY(key), storeInitial[key]);
+                if (tenges(key) != storeInitial[key]) storeViews[key].removeTenges();
+            }
+            storeViews[key].makeVisible();
+        }
+        for (int key = robotAt.nextSetBit(0); key >= 0; key = robotAt.nextSetBit(key + 1)){
+            if (robotViews[key] == null){
+                int origin = robotOrigin[key];
+                robotViews[key] = new Robot(cellX(origin), cellY(origin), location(origin));
+                robotViews[key].moveTo(cellX(key), cellY(key));
+            }
+            robotViews[key].makeVisible();
         }
     }
     
     /**
      * Makes the entire road invisible, including the spiral,
-     * stores, and robots.
+     * stores, and robots, and discards the objects that drew them.
+     * The canvas is repainted once, after everything has been erased.
      */
     public void makeInvisible(){
-        spiral.makeInvisible();
-        for (Store store: stores){
-            store.makeInvisible();
+        if (storeViews == null) return;
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginFrame();
+        try {
+            spiral.makeInvisible();
+            for (int key = 0; key < storeViews.length; key++){
+                hideStore(key);
+                hideRobot(key);
+            }
+        } finally {
+            canvas.endFrame();
+        }
+        storeViews = null;
+        robotViews = null;
+    }
+    
+    /**
+     * Erases the store drawn at a location, if any.
+     */
+    private void hideStore(int location){
+        if (storeViews != null && storeViews[location] != null){
+            storeViews[location].makeInvisible();
+            storeViews[location] = null;
         }
-        for (Robot robot: robots){
-            robot.makeInvisible();
+    }
+    
+    /**
+     * Erases the robot drawn at a location, if any.
+     */
+    private void hideRobot(int location){
+        if (robotViews != null && robotViews[location] != null){
+            robotViews[location].makeInvisible();
+            robotViews[location] = null;
         }
     }
     
@@ -393,29 +1245,202 @@ public class SilkRoad
      * resetting the spiral, and marking the road as finished.
      */
     public void finis(){
+        makeInvisible();
         this.length = 0;
         isFinished = true;
-        spiral = null;
-        positions = new Rectangle[0];
-        robots = new ArrayList<>();
-        stores = new ArrayList<>();
-        mapRobots = new TreeMap<>();
-        mapStores = new TreeMap<>();
+        coordinates = null;
+        createStorage();
     }
     
     /**
-     * Checks if all stores are empty (no tenges left).
+     * Checks if all stores are empty (no tenges left), in O(1).
      *
      * @return {@code true} if all stores are empty,
      *         {@code false} otherwise.
      */
     public boolean ok(){
-        int sumStores = 0;
-        for (Store store: stores){
-            sumStores += store.getTenges();
-        }
-        if (sumStores > 0){
+        if (storeTotal > 0){
             return false;
         } else return true;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Returns the number of stores that still hold tenges, in O(1).
+     *
+     * @return the number of stores with more than zero tenges.
+     */
+    public int loadedStores(){
+        return loadedStores;
+    }
+    
+    /**
+     * A read-only cursor over the stores or the robots of the road, in 
+     * location order. It reads the road in place, so walking it allocates 
+     * nothing, and it can be {@linkplain #reset() reset} and walked again 
+     * on every poll. Changing the road while walking it is allowed: the 
+     * cursor simply continues from its current location. The getters read 
+     * the entity the last {@link #next()} moved to, so they fail before the 
+     * first call and once it has returned {@code false}.
+     * <pre>
+     * SilkRoad.Cursor stores = road.storeCursor();
+     * while (stores.next()){
+     *     use(stores.getLocation(), stores.getTenges());
+     * }
+     * </pre>
+     */
+    public class Cursor
+    {
+        private static final int STORES = 0;
+        private static final int EMPTIED = 1;
+        private static final int ROBOTS = 2;
+        private int kind;
+        private int slot;
+        
+        /**
+         * Creates a cursor of the given kind, before the first entity.
+         */
+        private Cursor(int kind){
+            this.kind = kind;
+        }
+        
+        /**
+         * Moves to the next entity.
+         *
+         * @return {@code true} if there is one, {@code false} at the end.
+         */
+        public boolean next(){
+            if (slot < 0) return false;
+            if (kind == ROBOTS){
+                slot = robotAt.nextSetBit(slot + 1);
+            } else {
+                slot = storeAt.nextSetBit(slot + 1);
+                while (kind == EMPTIED && slot >= 0 && storeTimes[slot] == 0){
+                    slot = storeAt.nextSetBit(slot + 1);
+                }
+            }
+            return slot >= 0;
+        }
+        
+        /**
+         * Moves the cursor back before the first entity.
+         */
+        public void reset(){
+            slot = 0;
+        }
+        
+        /**
+         * Returns the location of the current entity.
+         *
+         * @return the location on the road.
+         * @throws IllegalStateException if the cursor is not on an entity.
+         */
+        public int getLocation(){
+            return location(currentSlot());
+        }
+        
+        /**
+         * Returns the tenges the current store or robot holds.
+         *
+         * @return the current tenges.
+         * @throws IllegalStateException if the cursor is not on an entity.
+         */
+        public int getTenges(){
+            int current = currentSlot();
+            return kind == ROBOTS ? robotTenges[current] : tenges(current);
+        }
+        
+        /**
+         * Returns the number of times the current store has been emptied.
+         *
+         * @return the times counter, or {@code 0} for a robot.
+         * @throws IllegalStateException if the cursor is not on an entity.
+         */
+        public int getTimes(){
+            int current = currentSlot();
+            return kind == ROBOTS ? 0 : storeTimes[current];
+        }
+        
+        /**
+         * Returns the slot of the current entity. Slots start at 1, so the 
+         * cursor is before the first entity at 0 and past the last one 
+         * below 0.
+         */
+        private int currentSlot(){
+            if (slot <= 0) throw new IllegalStateException("the cursor is not on an entity; call next() first");
+            return slot;
+        }
+    }
+    
+    /**
+     * The moves planned for a day, as pairs of array indexes 
+     * {@code from, to}.
+     */
+    private static class Moves
+    {
+        private int[] pairs = new int[16];
+        private int size;
+        
+        /**
+         * Adds a move at the end of the plan.
+         */
+        private void add(int from, int to){
+            if (size + 2 > pairs.length) pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+            pairs[size] = from;
+            pairs[size + 1] = to;
+            size += 2;
+        }
+        
+        /**
+         * Empties the plan, keeping its buffer.
+         */
+        private void clear(){
+            size = 0;
+        }
+    }
+    
+    /**
+     * Plans a range of the segments found by {@link #moveRobots(ForkJoinPool)}, 
+     * splitting it in two while it holds many robots. Tasks are never 
+     * serialized.
+     */
+    @SuppressWarnings("serial")
+    private class PlanTask extends RecursiveAction
+    {
+        private static final int ROBOTS_PER_TASK = 1024;
+        private int[] storeFrom;
+        private int[] robotFrom;
+        private int[] robotTo;
+        private Moves[] plans;
+        private int low;
+        private int high;
+        
+        /**
+         * Creates a task for the segments {@code low..high-1}.
+         */
+        private PlanTask(int[] storeFrom, int[] robotFrom, int[] robotTo, Moves[] plans, int low, int high){
+            this.storeFrom = storeFrom;
+            this.robotFrom = robotFrom;
+            this.robotTo = robotTo;
+            this.plans = plans;
+            this.low = low;
+            this.high = high;
+        }
+        
+        @Override
+        protected void compute(){
+            if (high - low > 1 && robotFrom[high] - robotFrom[low] > ROBOTS_PER_TASK){
+                int middle = (low + high) >>> 1;
+                invokeAll(new PlanTask(storeFrom, robotFrom, robotTo, plans, low, middle),
+                          new PlanTask(storeFrom, robotFrom, robotTo, plans, middle, high));
+                return;
+            }
+            MaxIndex left = new MaxIndex();
+            MaxIndex right = new MaxIndex();
+            for (int c = low; c < high; c++){
+                if (robotFrom[c] == robotTo[c]) continue;
+                plans[c] = new Moves();
+                planSegment(storeFrom[c], storeFrom[c + 1], robotFrom[c], robotTo[c], left, right, plans[c]);
+            }
+        }
+    }
+}
@@ -2,6 +2,11 @@ import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Test;
 import java.util.ArrayList;
+import java.util.List;
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.lang.management.ManagementFactory;
 
 public class SilkRoadC2Test {
 
@@ -153,4 +158,357 @@ public class SilkRoadC2Test {
         road.moveRobot(2, 2); 
         assertEquals(-2, road.robots().get(0)[1]);
     }
+
+    @Test
+    public void accordingVGShouldMoveRobotsWithoutAllocating() {
+        SilkRoad large = new SilkRoad(2000);
+        for (int i = 1; i < 2000; i += 7) {
+            large.pleaseRobot(i);
+            large.pleaseStore(i + 3, 5 + i % 11);
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 200; i++) {
+            large.moveRobots();
+            large.reboot();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 200; i++) {
+            large.moveRobots();
+            large.reboot();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void accordingVGShouldNotifyListenersOfMovesAndErrors() {
+        final ArrayList<String> events = new ArrayList<>();
+        road.addListener(new SilkRoadListener() {
+            public void robotMoved(int from, int to, int tenges) {
+                events.add("move " + from + " " + to + " " + tenges);
+            }
+            public void storeCollected(int location, int tenges) {
+                events.add("collect " + location + " " + tenges);
+            }
+            public void error(String message) {
+                events.add(message);
+            }
+        });
+        road.pleaseRobot(2);
+        road.pleaseStore(4, 50);
+        road.moveRobot(2, 2);
+        road.moveRobot(9, 1);
+        assertEquals(3, events.size());
+        assertEquals("collect 4 50", events.get(0));
+        assertEquals("move 2 4 48", events.get(1));
+        assertEquals("Error move robot", events.get(2));
+    }
+
+    @Test
+    public void accordingVGShouldLocateSpiralCellsWithoutRectangles() {
+        SpiralRoad spiral = new SpiralRoad(10000000);
+        int[][] cells = {{0, 500, 300}, {3, 520, 310}, {6, 510, 330}, {11, 470, 320},
+                         {16, 480, 280}, {99, 470, 240}, {99999, 2740, -950},
+                         {9999999, 16760, 22670}};
+        for (int[] cell : cells) {
+            assertEquals(cell[1], spiral.getXPosition(cell[0]));
+            assertEquals(cell[2], spiral.getYPosition(cell[0]));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldFindTheSpiralCellUnderAPoint() {
+        SpiralRoad spiral = new SpiralRoad(1000000);
+        for (int index = 0; index < 1000000; index += 7) {
+            int x = spiral.getXPosition(index);
+            int y = spiral.getYPosition(index);
+            assertEquals(index, spiral.getIndex(x, y));
+            assertEquals(index, spiral.getIndex(x + 9, y + 9));
+        }
+        assertEquals(-1, spiral.getIndex(500, 290));
+        assertEquals(-1, spiral.getIndex(16760, 22670));
+        assertEquals(null, spiral.getCellColor(50, 29));
+        assertEquals("yellow", spiral.getCellColor(52, 31));
+    }
+
+    @Test
+    public void accordingVGShouldReturnNoRectanglesForAnEmptySpiral() {
+        assertEquals(0, new SpiralRoad(0).getArrRectangles().length);
+        assertEquals(3, new SpiralRoad(3).getArrRectangles().length);
+    }
+
+    @Test
+    public void accordingVGShouldKeepExactDistancesOnSparseRoad() {
+        SilkRoad sparse = new SilkRoad(1000000000, new int[]{999999990, 1000000000, 7});
+        sparse.pleaseRobot(999999990);
+        sparse.pleaseStore(1000000000, 25);
+        sparse.pleaseStore(7, 3);
+        sparse.moveRobots();
+        assertEquals(15, sparse.profit());
+        assertEquals(1000000000, sparse.robots().get(0)[0]);
+        sparse.pleaseStore(500, 10);
+        assertEquals(2, sparse.stores().size());
+    }
+
+    @Test
+    public void accordingVGShouldPictureASparseRoadAtItsRealLocations() {
+        SilkRoad sparse = new SilkRoad(1000, new int[]{40, 900});
+        sparse.pleaseRobot(40);
+        sparse.pleaseStore(900, 5);
+        RoadSnapshot snapshot = sparse.snapshot(0);
+        assertEquals(1000, snapshot.getCells());
+        SpiralRoad spiral = new SpiralRoad(snapshot.getCells());
+        Store store = snapshot.createStore(spiral, 0);
+        Robot robot = snapshot.createRobot(spiral, 0);
+        assertEquals(spiral.getXPosition(899), store.getX());
+        assertEquals(spiral.getYPosition(899), store.getY());
+        assertEquals(spiral.getXPosition(39), robot.getX());
+        assertEquals(40, robot.getInitialLocation());
+    }
+
+    @Test
+    public void accordingVGShouldBuildADenseRoadFromDays() {
+        SilkRoad road = new SilkRoad(new int[][]{{1, 3}, {2, 9, 4}});
+        road.pleaseStore(6, 2);
+        assertEquals(2, road.stores().size());
+        assertEquals(1, road.robots().size());
+    }
+
+    @Test(timeout = 5000)
+    public void accordingVGShouldRemoveManyEntitiesInBulk() {
+        int count = 100000;
+        SilkRoad large = new SilkRoad(2 * count + 1);
+        int[] storeLocations = new int[count];
+        int[] robotLocations = new int[count];
+        for (int i = 0; i < count; i++) {
+            storeLocations[i] = 2 * i + 2;
+            robotLocations[i] = 2 * i + 1;
+            large.pleaseStore(storeLocations[i], i);
+            large.pleaseRobot(robotLocations[i]);
+        }
+        large.removeStores(storeLocations);
+        large.removeRobots(robotLocations);
+        assertEquals(0, large.stores().size());
+        assertEquals(0, large.robots().size());
+    }
+
+    @Test(timeout = 5000)
+    public void accordingVGShouldRebootOnlyWhatMoved() {
+        int count = 100000;
+        SilkRoad large = new SilkRoad(2 * count + 1);
+        for (int i = 0; i < count; i++) {
+            large.pleaseStore(2 * i + 2, 10);
+            large.pleaseRobot(2 * i + 1);
+        }
+        for (int day = 0; day < 100000; day++) {
+            large.moveRobot(1, 1);
+            large.reboot();
+        }
+        assertEquals(10, large.stores().get(0)[1]);
+        assertEquals(1, large.robots().get(0)[0]);
+        assertEquals(0, large.profit());
+    }
+
+    @Test
+    public void accordingVGShouldKeepTotalsAcrossEveryChange() {
+        SilkRoad road = new SilkRoad(20);
+        road.pleaseStore(5, 10);
+        road.pleaseStore(9, 6);
+        road.pleaseRobot(4);
+        assertEquals(2, road.loadedStores());
+        road.moveRobot(4, 1);
+        assertEquals(9, road.profit());
+        assertEquals(1, road.loadedStores());
+        road.removeStore(9);
+        assertTrue(road.ok());
+        road.reboot();
+        assertEquals(0, road.profit());
+        assertEquals(1, road.loadedStores());
+        road.removeRobot(4);
+        road.pleaseStore(5, 0);
+        assertEquals(0, road.loadedStores());
+        assertTrue(road.ok());
+    }
+
+    @Test
+    public void accordingVGShouldReadTheRoadWithoutBuildingLists() {
+        SilkRoad road = new SilkRoad(20);
+        road.pleaseStore(5, 10);
+        road.pleaseStore(9, 6);
+        road.pleaseRobot(4);
+        road.moveRobot(4, 1);
+        SilkRoad.Cursor stores = road.storeCursor();
+        assertTrue(stores.next());
+        assertEquals(5, stores.getLocation());
+        assertEquals(0, stores.getTenges());
+        assertEquals(1, stores.getTimes());
+        assertTrue(stores.next());
+        assertEquals(9, stores.getLocation());
+        assertFalse(stores.next());
+        stores.reset();
+        assertTrue(stores.next());
+        assertEquals(5, stores.getLocation());
+        IntBuffer buffer = IntBuffer.allocate(3);
+        assertEquals(1, road.exportStores(buffer));
+        assertArrayEquals(new int[]{5, 0, 0}, buffer.array());
+        buffer.clear();
+        assertEquals(1, road.exportProfitPerMove(buffer));
+        assertArrayEquals(new int[]{5, -1, 9}, buffer.array());
+    }
+
+    @Test
+    public void accordingVGShouldNotReadACursorOffItsEntities() {
+        SilkRoad road = new SilkRoad(20);
+        road.pleaseStore(5, 10);
+        SilkRoad.Cursor stores = road.storeCursor();
+        try {
+            stores.getLocation();
+            fail("a cursor was read before next()");
+        } catch (IllegalStateException e) {
+        }
+        assertTrue(stores.next());
+        assertEquals(10, stores.getTenges());
+        assertFalse(stores.next());
+        try {
+            stores.getTenges();
+            fail("a cursor was read past its end");
+        } catch (IllegalStateException e) {
+        }
+        stores.reset();
+        try {
+            stores.getTimes();
+            fail("a cursor was read after a reset");
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    @Test
+    public void accordingVGShouldAggregateARangeOfTheRoad() {
+        SilkRoad road = new SilkRoad(30);
+        road.pleaseStore(5, 10);
+        road.pleaseStore(9, 6);
+        road.pleaseStore(20, 40);
+        road.pleaseRobot(4);
+        assertEquals(16, road.storeTengesBetween(1, 10));
+        assertEquals(2, road.storesBetween(1, 10));
+        assertEquals(40, road.maxStoreTengesBetween(1, 30));
+        road.moveRobot(4, 1);
+        assertEquals(6, road.storeTengesBetween(1, 10));
+        assertEquals(9, road.robotTengesBetween(5, 5));
+        assertEquals(0, road.robotsBetween(1, 4));
+        road.reboot();
+        assertEquals(16, road.storeTengesBetween(1, 10));
+        assertEquals(1, road.robotsBetween(1, 4));
+        assertEquals(Integer.MIN_VALUE, road.maxStoreTengesBetween(21, 30));
+    }
+
+    @Test
+    public void accordingVGShouldSweepLikeANestedScanOfEveryStore() {
+        Random random = new Random(21);
+        for (int c = 0; c < 150; c++) {
+            int[][] events = days(random, 1 + random.nextInt(40), c % 2 == 0 ? 25 : 300, 60);
+            SilkRoad swept = new SilkRoad(events);
+            SilkRoad scanned = new SilkRoad(events);
+            for (int day = 0; day < 3; day++) {
+                swept.moveRobots();
+                scan(scanned);
+                assertSameEntries(scanned.stores(), swept.stores());
+                assertSameEntries(scanned.robots(), swept.robots());
+                assertSameEntries(scanned.emptiedStores(), swept.emptiedStores());
+                assertArrayEquals(scanned.profitPerMove(), swept.profitPerMove());
+                swept.reboot();
+                scanned.reboot();
+            }
+        }
+    }
+
+    /**
+     * Moves the robots of a road one by one, in location order, onto every 
+     * store that leaves a profit, checking the stores in location order; 
+     * a move onto another robot is rejected and the robot stays.
+     */
+    private static void scan(SilkRoad road) {
+        for (int[] robot : road.robots()) {
+            int position = robot[0];
+            for (int[] store : road.stores()) {
+                boolean taken = false;
+                for (int[] other : road.robots()) {
+                    taken |= other[0] == store[0] && store[0] != position;
+                }
+                if (!taken && store[1] - Math.abs(position - store[0]) > 0) {
+                    road.moveRobot(position, store[0] - position);
+                    position = store[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns random contest days over locations {@code 0..range}, half 
+     * robots and half stores on average, with tenges below a bound. The 
+     * contest tests share it.
+     */
+    static int[][] days(Random random, int count, int range, int tenges) {
+        int[][] days = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int location = random.nextInt(range + 1);
+            days[i] = random.nextBoolean() ? new int[]{1, location} : new int[]{2, location, random.nextInt(tenges)};
+        }
+        return days;
+    }
+
+    /**
+     * Checks that two lists hold the same entries in the same order.
+     */
+    private static void assertSameEntries(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldMoveInParallelLikeInSequence() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int seed = 0; seed < 6; seed++) {
+                boolean sparse = seed % 2 == 1;
+                int[][] events = days(new Random(seed), 4000, sparse ? 100000000 : 40000, 100);
+                SilkRoad sequential = road(events, sparse);
+                SilkRoad parallel = road(events, sparse);
+                for (int day = 0; day < 2; day++) {
+                    sequential.moveRobots();
+                    parallel.moveRobots(pool);
+                    assertEquals(sequential.profit(), parallel.profit());
+                    assertArrayEquals(sequential.profitPerMove(), parallel.profitPerMove());
+                    assertSameEntries(sequential.stores(), parallel.stores());
+                    assertSameEntries(sequential.robots(), parallel.robots());
+                    assertSameEntries(sequential.emptiedStores(), parallel.emptiedStores());
+                    sequential.reboot();
+                    parallel.reboot();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Builds a road holding the robots and stores of some days, either 
+     * dense or sparse.
+     */
+    private static SilkRoad road(int[][] events, boolean sparse) {
+        if (!sparse) return new SilkRoad(events);
+        SilkRoad road = new SilkRoad(SilkRoad.maxLocation(events), SilkRoad.locations(events));
+        for (int[] event : events) {
+            if (event[0] == 2) {
+                road.pleaseStore(event[1], event[2]);
+            } else {
+                road.pleaseRobot(event[1]);
+            }
+        }
+        return road;
+    }
 }
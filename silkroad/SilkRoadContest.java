@@ -1,4 +1,14 @@
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import Shapes.Canvas;
 /**
  * The {@code SilkRoadContest} class simulates a competition scenario 
  * where robots and stores are placed along a one-dimensional Silk Road.
@@ -6,7 +16,12 @@ import java.util.*;
  * of daily events provided as input.
  * <p>
  * This class allows both a fast execution of the simulation (instant results)
- * and a slow mode using a timer for visualization.
+ * and a slow mode played back by a {@link SilkRoadPlayer} for visualization.
+ * </p>
+ * <p>
+ * Results are returned rather than printed; registered 
+ * {@link SilkRoadListener}s are told about every finished day and 
+ * about the moves and errors of the road being simulated.
  * </p>
  * 
  * @author Brayan Valdes - Yan Guerra
@@ -15,9 +30,10 @@ import java.util.*;
 public class SilkRoadContest
 {
     private SilkRoad road;
-    private static int iterator = 0;
     private ArrayList<Integer> profit;
     private int [][] days;
+    private ArrayList<SilkRoadListener> listeners;
+    private SilkRoadPlayer player;
  
     /**
      * Constructs a new {@code SilkRoadContest} instance with 
@@ -31,6 +47,37 @@ public class SilkRoadContest
     {
         days = new int[1][1];
         profit = new ArrayList<>();
+        listeners = new ArrayList<>();
+    }
+    
+    /**
+     * Registers a listener for the finished days of this contest and for
+     * the moves and errors of the roads it simulates.
+     *
+     * @param listener the listener to notify.
+     */
+    public void addListener(SilkRoadListener listener){
+        listeners.add(listener);
+    }
+    
+    /**
+     * Registers the contest's listeners on a new road and returns it.
+     */
+    private SilkRoad listen(SilkRoad newRoad){
+        for (SilkRoadListener listener: listeners){
+            newRoad.addListener(listener);
+        }
+        return newRoad;
+    }
+    
+    /**
+     * Records the profit of a finished day and reports it to every listener.
+     */
+    private void completeDay(int dayProfit){
+        profit.add(dayProfit);
+        for (SilkRoadListener listener: listeners){
+            listener.dayCompleted(profit.size() - 1, dayProfit);
+        }
     }
     
     /**
@@ -44,7 +91,16 @@ public class SilkRoadContest
      *   <li>{@code elem[2]} → tenges (only if it's a store)</li>
      * </ul>
      * The method places robots and stores, moves robots, collects profits, 
-     * and resets the road after each step.
+     * and resets the road after each step. The road is sparse: it only 
+     * reserves the locations that appear in {@code days}, so a single 
+     * distant store does not make it huge.
+     * </p>
+     * <p>
+     * With no listener registered nobody sees the moves, so only the 
+     * profit is kept: a {@link GreedySegments} replans just the robots each
+     * new robot or store changes, and nothing is moved or
+     * rebooted. Listeners are told about every move of every day, so with 
+     * listeners the whole road is still simulated day by day.
      * </p>
      * 
      * @param days a 2D integer array representing daily actions on the Silk Road.
@@ -52,11 +108,18 @@ public class SilkRoadContest
      */
     public ArrayList<Integer> solve(int[][] days){
         this.days = days;
-        int length = days[0][1];
-        for (int[] elem: days){
-            if (elem[1]>length) length = elem[1];
+        profit = new ArrayList<>();
+        if (listeners.isEmpty()){
+            GreedySegments solver = new GreedySegments(SilkRoad.maxLocation(days), SilkRoad.locations(days));
+            for (int[] elem: days){
+                if (elem[0] == 2){
+                    solver.pleaseStore(elem[1], elem[2]);
+                } else solver.pleaseRobot(elem[1]);
+                completeDay(Math.toIntExact(solver.profit()));
+            }
+            return profit;
         }
-        road = new SilkRoad(length);
+        road = listen(new SilkRoad(SilkRoad.maxLocation(days), SilkRoad.locations(days)));
         for (int[] elem: days){
             int isRobotOrStore = elem[0];
             int position = elem[1];
@@ -66,73 +129,391 @@ public class SilkRoadContest
             } else road.pleaseRobot(position);
             
             road.moveRobots();
-            profit.add(road.profit());
+            completeDay(road.profit());
             road.reboot();
         }
-        System.out.println(profit);  
         return profit;
     }
     
+    /**
+     * Solves the Silk Road contest choosing how the robots move each day.
+     * <p>
+     * When {@code optimal} is {@code false} this is the same greedy 
+     * simulation as {@link #solve(int[][])}. When it is {@code true}, each 
+     * day reports the maximum profit the robots can obtain, so both modes 
+     * can be compared on the same input.
+     * </p>
+     * <p>
+     * The optimal mode never reboots the road: a {@link ProfitTree} keeps 
+     * the answer up to date as each robot or store arrives, updating only 
+     * the part of the road around the new location in O(log n).
+     * </p>
+     *
+     * @param days    a 2D integer array representing daily actions on the Silk Road.
+     * @param optimal if {@code true}, reports the maximum profit of each day;
+     *                if {@code false}, reports the profit of the greedy movement.
+     * @return an {@code ArrayList<Integer>} containing the total profit after each step.
+     */
+    public ArrayList<Integer> solve(int[][] days, boolean optimal){
+        if (!optimal) return solve(days);
+        this.days = days;
+        profit = new ArrayList<>();
+        ProfitTree solver = new ProfitTree();
+        for (int[] elem: days){
+            int isRobotOrStore = elem[0];
+            int position = elem[1];
+            if (isRobotOrStore == 2){
+                int tenges = elem[2];
+                solver.pleaseStore(position, tenges);
+            } else solver.pleaseRobot(position);
+            completeDay(Math.toIntExact(solver.profit()));
+        }
+        return profit;
+    }
+    
+    /**
+     * Solves a contest stored in a binary {@link EventLog}, reading each 
+     * event in place from the mapped file.
+     * <p>
+     * Apart from where the events come from, this is the same as 
+     * {@link #solve(int[][], boolean)}. The log is only read, so several 
+     * contests may solve the same log on different threads at once.
+     * </p>
+     *
+     * @param log     the events of the contest.
+     * @param optimal if {@code true}, reports the maximum profit of each day;
+     *                if {@code false}, reports the profit of the greedy movement.
+     * @return an {@code ArrayList<Integer>} containing the total profit after each step.
+     */
+    public ArrayList<Integer> solve(EventLog log, boolean optimal){
+        profit = new ArrayList<>(log.size());
+        if (optimal){
+            ProfitTree solver = new ProfitTree();
+            for (int day = 0; day < log.size(); day++){
+                if (log.getType(day) == 2){
+                    solver.pleaseStore(log.getLocation(day), log.getTenges(day));
+                } else solver.pleaseRobot(log.getLocation(day));
+                completeDay(Math.toIntExact(solver.profit()));
+            }
+            return profit;
+        }
+        if (listeners.isEmpty()){
+            GreedySegments solver = new GreedySegments(log.getMaxLocation(), log.getLocations());
+            for (int day = 0; day < log.size(); day++){
+                if (log.getType(day) == 2){
+                    solver.pleaseStore(log.getLocation(day), log.getTenges(day));
+                } else solver.pleaseRobot(log.getLocation(day));
+                completeDay(Math.toIntExact(solver.profit()));
+            }
+            return profit;
+        }
+        road = listen(new SilkRoad(log.getMaxLocation(), log.getLocations()));
+        for (int day = 0; day < log.size(); day++){
+            if (log.getType(day) == 2){
+                road.pleaseStore(log.getLocation(day), log.getTenges(day));
+            } else road.pleaseRobot(log.getLocation(day));
+            road.moveRobots();
+            completeDay(road.profit());
+            road.reboot();
+        }
+        return profit;
+    }
+    
+    /**
+     * Solves a contest while it is being read, writing the profit of each 
+     * day on its own line.
+     * <p>
+     * In the optimal mode events go straight from the reader into a 
+     * {@link ProfitTree}, and each profit is written through a small 
+     * buffer as soon as its day is known, so neither the input nor the 
+     * answers are ever held in full. The greedy mode cannot stream its 
+     * input: a {@link GreedySegments} needs every location of the contest 
+     * before the first day to size its road, so the events are read in 
+     * full first and solved as {@link #solve(int[][], boolean)} does; only 
+     * the answers are streamed.
+     * </p>
+     * <p>
+     * Registered listeners are told about every finished day.
+     * </p>
+     *
+     * @param input   the contest, starting with its number of events.
+     * @param output  the stream that receives one profit per line; it is 
+     *                flushed, not closed.
+     * @param optimal if {@code true}, writes the maximum profit of each day;
+     *                if {@code false}, writes the profit of the greedy movement.
+     * @throws EOFException if the input ends before its number of events.
+     * @throws IOException  if the input cannot be read or is malformed, or 
+     *                      the output cannot be written.
+     */
+    public void solve(ContestReader input, OutputStream output, boolean optimal) throws IOException{
+        int count = input.nextInt();
+        if (!optimal){
+            writeLines(solve(readDays(input, count), false), output);
+            return;
+        }
+        ProfitTree solver = new ProfitTree();
+        int[] event = new int[3];
+        byte[] line = new byte[1 << 16];
+        int size = 0;
+        for (int day = 0; day < count; day++){
+            if (!input.nextEvent(event)){
+                output.write(line, 0, size);
+                output.flush();
+                throw new EOFException("expected " + count + " events, found " + day);
+            }
+            if (event[0] == 2){
+                solver.pleaseStore(event[1], event[2]);
+            } else solver.pleaseRobot(event[1]);
+            long dayProfit = solver.profit();
+            if (size > line.length - 21){
+                output.write(line, 0, size);
+                size = 0;
+            }
+            size = writeLine(line, size, dayProfit);
+            for (SilkRoadListener listener: listeners){
+                listener.dayCompleted(day, Math.toIntExact(dayProfit));
+            }
+        }
+        output.write(line, 0, size);
+        output.flush();
+    }
+    
+    /**
+     * Reads the events of a contest into the days {@link #solve(int[][])} 
+     * takes.
+     */
+    private static int[][] readDays(ContestReader input, int count) throws IOException{
+        List<int[]> days = new ArrayList<>(Math.max(0, Math.min(count, 1 << 16)));
+        int[] event = new int[3];
+        while (days.size() < count){
+            if (!input.nextEvent(event)){
+                throw new EOFException("expected " + count + " events, found " + days.size());
+            }
+            days.add(event[0] == 2 ? event.clone() : new int[]{event[0], event[1]});
+        }
+        return days.toArray(new int[0][]);
+    }
+    
+    /**
+     * Writes one profit per line through a small buffer.
+     */
+    private static void writeLines(List<Integer> profits, OutputStream output) throws IOException{
+        byte[] line = new byte[1 << 16];
+        int size = 0;
+        for (int dayProfit: profits){
+            if (size > line.length - 21){
+                output.write(line, 0, size);
+                size = 0;
+            }
+            size = writeLine(line, size, dayProfit);
+        }
+        output.write(line, 0, size);
+        output.flush();
+    }
+    
+    /**
+     * Writes a non-negative number and a line break as ASCII bytes and 
+     * returns the position after them.
+     */
+    private static int writeLine(byte[] line, int at, long value){
+        int start = at;
+        do {
+            line[at++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = at - 1; i < j; i++, j--){
+            byte digit = line[i];
+            line[i] = line[j];
+            line[j] = digit;
+        }
+        line[at++] = '\n';
+        return at;
+    }
+    
+    /**
+     * Solves the contest in the file named by the last argument, or in 
+     * the standard input when there is none, and prints the maximum profit 
+     * of each day to the standard output, or the profit of the greedy 
+     * movement when the first argument is {@code --greedy}.
+     *
+     * @param args an optional {@code --greedy} and an optional file name.
+     * @throws IOException if the contest cannot be read.
+     */
+    public static void main(String[] args) throws IOException{
+        boolean optimal = args.length == 0 || !args[0].equals("--greedy");
+        int first = optimal ? 0 : 1;
+        try (ContestReader input = args.length > first ? ContestReader.open(Paths.get(args[first]))
+                                                       : new ContestReader(System.in)){
+            new SilkRoadContest().solve(input, System.out, optimal);
+        }
+    }
+    
+    /**
+     * Solves many contests at once, spreading them across the cores of the
+     * machine.
+     * <p>
+     * Each contest is solved by its own {@code SilkRoadContest} on the 
+     * common fork-join pool, exactly as {@link #solve(int[][], boolean)} 
+     * would solve it; the answers come back in the same order as the 
+     * contests. No listener is notified, since the days of different 
+     * contests would interleave.
+     * </p>
+     *
+     * @param contests the days of every contest to solve.
+     * @param optimal  if {@code true}, reports the maximum profit of each day;
+     *                 if {@code false}, reports the profit of the greedy movement.
+     * @return the profits of each contest, in the order of {@code contests}.
+     */
+    public static List<ArrayList<Integer>> solveAll(List<int[][]> contests, boolean optimal){
+        return solveAll(contests, optimal, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Solves many contests at once on the threads of a given pool, exactly 
+     * like {@link #solveAll(List, boolean)}.
+     *
+     * @param contests the days of every contest to solve.
+     * @param optimal  if {@code true}, reports the maximum profit of each day;
+     *                 if {@code false}, reports the profit of the greedy movement.
+     * @param pool     the pool that solves the contests.
+     * @return the profits of each contest, in the order of {@code contests}.
+     */
+    public static List<ArrayList<Integer>> solveAll(List<int[][]> contests, boolean optimal, ForkJoinPool pool){
+        return pool.submit(() -> contests.parallelStream()
+                                         .map(days -> new SilkRoadContest().solve(days, optimal))
+                                         .collect(Collectors.toList()))
+                   .join();
+    }
+    
+    /**
+     * Returns the player of the last slow simulation, which can be used to 
+     * pause, step, seek or change the speed of the playback.
+     *
+     * @return the player, or {@code null} if no slow simulation was started.
+     */
+    public SilkRoadPlayer getPlayer(){
+        return player;
+    }
+    
     /**
      * Simulates the Silk Road contest visually, with an option for 
-     * slow-motion playback using a {@link Timer}.
+     * slow-motion playback.
      * <p>
-     * This method executes the same logic as {@link #solve(int[][])}, 
-     * but when {@code slow} is {@code true}, it uses a {@code TimerTask} 
-     * to perform the actions gradually every 10 seconds.
+     * This method executes the same logic as {@link #solve(int[][])}. 
+     * When {@code slow} is {@code false} every day is drawn as fast as 
+     * possible; when it is {@code true}, a {@link SilkRoadPlayer} shows one 
+     * day every 10 seconds and returns immediately. The player, available 
+     * from {@link #getPlayer()}, can pause, step, seek or speed up.
+     * </p>
+     * <p>
+     * Each day is drawn inside a single canvas frame, so the canvas is 
+     * repainted once per day rather than once per moved shape, and it 
+     * shows the road as the day ended.
      * </p>
      *
      * @param days a 2D integer array representing daily actions (robots or stores).
-     * @param slow if {@code true}, runs the simulation step-by-step with a timer;
+     * @param slow if {@code true}, plays the simulation back day by day;
      *             if {@code false}, runs it instantly.
      */
     public void simulate(int[][] days, boolean slow){
         this.days = days;
-        int length = days[0][1];
-        for (int[] elem: days){
-            if (elem[1]>length) length = elem[1];
+        profit = new ArrayList<>();
+        if (slow){
+            if (player != null) player.stop();
+            player = new SilkRoadPlayer(days, listeners);
+            player.start();
+            return;
         }
-        road = new SilkRoad(length);
+        road = listen(new SilkRoad(SilkRoad.maxLocation(days)));
         road.makeVisible();
-        if (slow){
-            
-            Timer timer = new Timer();
-            TimerTask task = new TimerTask(){
+        for (int[] elem: days){
+            playDay(elem);
+        }
+    }
+    
+    /**
+     * Plays the contest like {@code simulate(days, false)} and saves a PNG
+     * image of the road at the end of every day.
+     * <p>
+     * Nothing waits between days, and when Java runs with 
+     * {@code java.awt.headless=true} no window is opened, so replays can 
+     * be produced in batch on machines without a display. The images are 
+     * named {@code day-00000.png}, {@code day-00001.png}, and so on.
+     * </p>
+     *
+     * @param days      a 2D integer array representing daily actions (robots or stores).
+     * @param directory the directory that receives the images; it is created if missing.
+     * @param everyMove if {@code true}, also saves an image after every robot move, 
+     *                  named {@code day-00000-move-00000.png}.
+     * @throws IOException if the directory cannot be created or an image 
+     *                     cannot be written.
+     */
+    public void record(int[][] days, File directory, boolean everyMove) throws IOException{
+        this.days = days;
+        profit = new ArrayList<>();
+        Files.createDirectories(directory.toPath());
+        Canvas canvas = Canvas.getCanvas();
+        road = listen(new SilkRoad(SilkRoad.maxLocation(days)));
+        if (everyMove){
+            road.addListener(new SilkRoadListener(){
+                private int day = -1;
+                private int move;
+                
                 @Override
-                public void run(){
-                    road.makeVisible();
-                    int isRobotOrStore = days[iterator][0];
-                    int position = days[iterator][1];
-                    if (isRobotOrStore == 2){
-                        int tenges = days[iterator][2];
-                        road.pleaseStore(position, tenges);
-                    } else road.pleaseRobot(position);
-                    road.moveRobots();
-                    profit.add(road.profit());
-                    road.reboot();
-                    road.makeVisible();
-                    iterator += 1;
-                    if (iterator >= days.length){
-                        timer.cancel();
+                public void robotMoved(int from, int to, int tenges){
+                    if (day != profit.size()){
+                        day = profit.size();
+                        move = 0;
+                    }
+                    String name = String.format("day-%05d-move-%05d.png", day, move++);
+                    try {
+                        canvas.writeImage(new File(directory, name));
+                    } catch (IOException e){
+                        throw new UncheckedIOException(e);
                     }
                 }
-            };
-            timer.schedule(task, 0, 10000);
-            iterator = 0;
-        } else {
+            });
+        }
+        road.makeVisible();
+        try {
             for (int[] elem: days){
-                road.makeVisible();
-                int isRobotOrStore = elem[0];
-                int position = elem[1];
-                if (isRobotOrStore == 2){
-                    int tenges = elem[2];
-                    road.pleaseStore(position, tenges);
-                } else road.pleaseRobot(position);
-                road.moveRobots();
-                profit.add(road.profit());
-                road.makeVisible();
-                road.reboot();
+                playDay(elem);
+                canvas.writeImage(new File(directory, String.format("day-%05d.png", profit.size() - 1)));
             }
+        } catch (UncheckedIOException e){
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Erases the road left on the canvas by {@link #simulate(int[][], boolean)} 
+     * or {@link #record(int[][], File, boolean)}.
+     */
+    public void makeInvisible(){
+        if (road != null) road.makeInvisible();
+    }
+    
+    /**
+     * Reboots the road from the previous day and plays one day on it, 
+     * drawing the result in a single canvas frame.
+     */
+    private void playDay(int[] elem){
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginFrame();
+        try {
+            road.reboot();
+            road.makeVisible();
+            int isRobotOrStore = elem[0];
+            int position = elem[1];
+            if (isRobotOrStore == 2){
+                int tenges = elem[2];
+                road.pleaseStore(position, tenges);
+            } else road.pleaseRobot(position);
+            road.moveRobots();
+            completeDay(road.profit());
+            road.makeVisible();
+        } finally {
+            canvas.endFrame();
         }
     }
-}
\ No newline at end of file
+}
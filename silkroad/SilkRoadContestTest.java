@@ -0,0 +1,377 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+
+public class SilkRoadContestTest {
+
+    private SilkRoadContest contest;
+    private int[][] days;
+    private File directory;
+
+    @Before
+    public void setUp() {
+        contest = new SilkRoadContest();
+        days = new int[][]{{1, 20}, {2, 15, 15}, {2, 40, 50}, {1, 50}, {2, 80, 20}, {2, 70, 30}};
+    }
+
+    @After
+    public void tearDown() {
+        contest.makeInvisible();
+        if (directory != null) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+            directory.getParentFile().delete();
+        }
+    }
+
+    @Test
+    public void accordingVGShouldSolveWithGreedyMovement() {
+        ArrayList<Integer> profit = contest.solve(days);
+        assertEquals(6, profit.size());
+        assertEquals(10, (int) profit.get(1));
+        assertEquals(35, (int) profit.get(2));
+    }
+
+    @Test
+    public void accordingVGShouldSolveWithOptimalMovement() {
+        ArrayList<Integer> profit = contest.solve(days, true);
+        int[] expected = {0, 10, 35, 50, 50, 60};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], (int) profit.get(i));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldNeverBeatOptimalWithGreedy() {
+        ArrayList<Integer> greedy = contest.solve(days, false);
+        ArrayList<Integer> optimal = new SilkRoadContest().solve(days, true);
+        for (int i = 0; i < days.length; i++) {
+            assertTrue(greedy.get(i) <= optimal.get(i));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldPassByStoresWithoutTenges() {
+        int[][] debt = {{1, 2}, {2, 5, -3}, {2, 8, 20}};
+        assertEquals(14, (int) contest.solve(debt, true).get(2));
+        Random random = new Random(19);
+        for (int c = 0; c < 300; c++) {
+            int[][] events = SilkRoadC2Test.days(random, 1 + random.nextInt(50), c % 2 == 0 ? 30 : 500, 80);
+            for (int[] event : events) {
+                if (event[0] == 2) event[2] -= 20;
+            }
+            ArrayList<Integer> greedy = new SilkRoadContest().solve(events);
+            ArrayList<Integer> optimal = new SilkRoadContest().solve(events, true);
+            for (int i = 0; i < events.length; i++) {
+                assertTrue(greedy.get(i) <= optimal.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void accordingVGShouldPlaceRepeatedLocationsLikeTheRoad() {
+        int[][] repeated = {{2, 5, 10}, {1, 8}, {1, 8}, {2, 11, 10}, {2, 5, 4}, {2, 1, 50}};
+        ArrayList<Integer> optimal = contest.solve(repeated, true);
+        ArrayList<Integer> greedy = new SilkRoadContest().solve(repeated);
+        int[] expected = {0, 7, 7, 11, 7, 7};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], (int) optimal.get(i));
+            assertTrue(greedy.get(i) <= optimal.get(i));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldKeepIncrementalProfitEqualToFullScan() {
+        Random random = new Random(7);
+        ProfitSolver solver = new ProfitSolver();
+        ProfitTree tree = new ProfitTree();
+        for (int i = 0; i < 300; i++) {
+            int location = 1 + random.nextInt(120);
+            if (random.nextBoolean()) {
+                solver.pleaseRobot(location);
+                tree.pleaseRobot(location);
+            } else {
+                int tenges = random.nextInt(40);
+                solver.pleaseStore(location, tenges);
+                tree.pleaseStore(location, tenges);
+            }
+            assertEquals(solver.profit(), tree.profit());
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void accordingVGShouldSolveLargeContestIncrementally() {
+        int[][] large = SilkRoadC2Test.days(new Random(3), 200000, 100000000, 10000);
+        ArrayList<Integer> profit = contest.solve(large, true);
+        assertEquals(large.length, profit.size());
+        assertTrue(profit.get(large.length - 1) >= profit.get(0));
+    }
+
+    @Test
+    public void accordingVGShouldKeepGreedyProfitEqualToFullSimulation() {
+        Random random = new Random(13);
+        for (int c = 0; c < 200; c++) {
+            int[][] events = SilkRoadC2Test.days(random, 1 + random.nextInt(80), c % 2 == 0 ? 30 : 100000, 400);
+            SilkRoadContest simulated = new SilkRoadContest();
+            simulated.addListener(new SilkRoadListener() {});
+            assertEquals(simulated.solve(events), new SilkRoadContest().solve(events));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void accordingVGShouldSolveOverlappingStoresIncrementally() {
+        int count = 20000;
+        int[][] events = new int[count][];
+        for (int i = 0; i < count; i++) {
+            int location = i + 1;
+            events[i] = location % 2 == 1 ? new int[]{1, location} : new int[]{2, location, 100000};
+        }
+        ArrayList<Integer> profit = contest.solve(events);
+        assertEquals(count / 2 * 100000 - (count - 1), (int) profit.get(count - 1));
+    }
+
+    @Test
+    public void accordingVGShouldKeepGreedyProfitOnOverlappingStores() {
+        for (int layout = 0; layout < 4; layout++) {
+            int count = 600;
+            int[][] events = new int[count][];
+            for (int i = 0; i < count; i++) {
+                int location = layout % 2 == 0 ? i + 1 : i / 2 + 1;
+                boolean robot = layout % 2 == 0 ? location % 2 == 1 : i % 2 == 0;
+                events[layout < 2 ? i : count - 1 - i] = robot ? new int[]{1, location} : new int[]{2, location, 100000};
+            }
+            SilkRoadContest simulated = new SilkRoadContest();
+            simulated.addListener(new SilkRoadListener() {});
+            assertEquals(simulated.solve(events), new SilkRoadContest().solve(events));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldReportEveryDayToTheLog() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SilkRoadLog log = new SilkRoadLog(output, 4);
+        contest.addListener(log);
+        contest.solve(days);
+        log.close();
+        String text = output.toString();
+        assertTrue(text.contains("day 0 profit 0"));
+        assertTrue(text.contains("day 5 profit 55"));
+        assertTrue(text.contains("collect 15 tenges 15"));
+    }
+
+    @Test
+    public void accordingVGShouldRecordOneImagePerDay() throws Exception {
+        directory = new File(Files.createTempDirectory("silkroad").toFile(), "days");
+        contest.record(days, directory, false);
+        for (int i = 0; i < days.length; i++) {
+            File image = new File(directory, String.format("day-%05d.png", i));
+            assertTrue(image.exists());
+            BufferedImage picture = ImageIO.read(image);
+            assertEquals(1000, picture.getWidth());
+            assertEquals(700, picture.getHeight());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void accordingVGShouldNotRecordIntoAFile() throws Exception {
+        directory = new File(Files.createTempDirectory("silkroad").toFile(), "days");
+        assertTrue(directory.createNewFile());
+        contest.record(days, directory, false);
+    }
+
+    @Test(timeout = 10000)
+    public void accordingVGShouldPlayBackPausedDaysOnDemand() throws Exception {
+        SilkRoadPlayer player = new SilkRoadPlayer(days, new ArrayList<>());
+        player.pause();
+        player.start();
+        player.seek(5);
+        while (player.getShown() == null || player.getShown().getDay() != 5) {
+            Thread.sleep(5);
+        }
+        assertEquals(55, player.getShown().getProfit());
+        player.seek(2);
+        while (player.getShown().getDay() != 2) {
+            Thread.sleep(5);
+        }
+        assertEquals(35, player.getShown().getProfit());
+        assertEquals(3, player.getShown().getStores() + player.getShown().getRobots());
+        player.stop();
+    }
+
+    @Test
+    public void accordingVGShouldSolveManyContestsInInputOrder() {
+        Random random = new Random(11);
+        List<int[][]> contests = new ArrayList<>();
+        for (int c = 0; c < 40; c++) {
+            contests.add(SilkRoadC2Test.days(random, 1 + random.nextInt(60), 200, 50));
+        }
+        List<ArrayList<Integer>> greedy = SilkRoadContest.solveAll(contests, false);
+        List<ArrayList<Integer>> optimal;
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            optimal = SilkRoadContest.solveAll(contests, true, pool);
+        } finally {
+            pool.shutdown();
+        }
+        for (int c = 0; c < contests.size(); c++) {
+            assertEquals(new SilkRoadContest().solve(contests.get(c)), greedy.get(c));
+            assertEquals(new SilkRoadContest().solve(contests.get(c), true), optimal.get(c));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldSolveAContestWhileReadingIt() throws Exception {
+        String text = "6\n1 20\n2 15 15\n2 40 50\n1 50\n2 80 20\n2 70 30\n";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        contest.solve(new ContestReader(new ByteArrayInputStream(text.getBytes())), output, true);
+        assertEquals("0\n10\n35\n50\n50\n60\n", output.toString());
+    }
+
+    @Test
+    public void accordingVGShouldStreamTheSameProfitsAsTheOptimalMode() throws Exception {
+        Random random = new Random(17);
+        for (int c = 0; c < 100; c++) {
+            int[][] events = SilkRoadC2Test.days(random, random.nextInt(120), c % 2 == 0 ? 40 : 1000000, 500);
+            StringBuilder expected = new StringBuilder();
+            for (int profit : contest.solve(events, true)) {
+                expected.append(profit).append('\n');
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            contest.solve(new ContestReader(new ByteArrayInputStream(text(events).getBytes())), output, true);
+            assertEquals(expected.toString(), output.toString());
+        }
+    }
+
+    @Test
+    public void accordingVGShouldStreamTheSameProfitsAsTheGreedyMode() throws Exception {
+        Random random = new Random(19);
+        for (int c = 0; c < 100; c++) {
+            int[][] events = SilkRoadC2Test.days(random, random.nextInt(120), c % 2 == 0 ? 40 : 1000000, 500);
+            StringBuilder expected = new StringBuilder();
+            for (int profit : contest.solve(events, false)) {
+                expected.append(profit).append('\n');
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            contest.solve(new ContestReader(new ByteArrayInputStream(text(events).getBytes())), output, false);
+            assertEquals(expected.toString(), output.toString());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void accordingVGShouldRejectGreedyContestsWithMissingEvents() throws Exception {
+        String text = "3\n1 20\n2 15 15\n";
+        contest.solve(new ContestReader(new ByteArrayInputStream(text.getBytes())), new ByteArrayOutputStream(), false);
+    }
+
+    @Test(expected = EOFException.class)
+    public void accordingVGShouldRejectContestsWithMissingEvents() throws Exception {
+        String text = "3\n1 20\n2 15 15\n";
+        contest.solve(new ContestReader(new ByteArrayInputStream(text.getBytes())), new ByteArrayOutputStream(), true);
+    }
+
+    @Test(expected = EOFException.class)
+    public void accordingVGShouldNotLogContestsWithMissingEvents() throws Exception {
+        String text = "3\n1 20\n2 15 15\n";
+        File file = Files.createTempFile("silkroad", ".bin").toFile();
+        file.deleteOnExit();
+        EventLog.write(new ContestReader(new ByteArrayInputStream(text.getBytes())), file.toPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void accordingVGShouldRejectMalformedContests() throws Exception {
+        String text = "2\n1 20\n3 15\n";
+        contest.solve(new ContestReader(new ByteArrayInputStream(text.getBytes())), new ByteArrayOutputStream(), true);
+    }
+
+    @Test
+    public void accordingVGShouldSolveABinaryEventLog() throws Exception {
+        String text = "6\n1 20\n2 15 15\n2 40 50\n1 50\n2 80 20\n2 70 30\n";
+        File file = Files.createTempFile("silkroad", ".bin").toFile();
+        EventLog.write(new ContestReader(new ByteArrayInputStream(text.getBytes())), file.toPath());
+        EventLog log = EventLog.open(file.toPath());
+        assertEquals(6, log.size());
+        assertEquals(80, log.getMaxLocation());
+        assertEquals(contest.solve(days, false), contest.solve(log, false));
+        assertEquals(contest.solve(days, true), contest.solve(log, true));
+        file.delete();
+    }
+
+    @Test
+    public void accordingVGShouldRejectEventLogsWithUnknownTypes() throws Exception {
+        File file = Files.createTempFile("silkroad", ".bin").toFile();
+        file.deleteOnExit();
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeInt(0x534C4B31);
+            output.writeInt(2);
+            output.writeInt(9);
+            output.writeInt(0);
+            output.writeInt(1);
+            output.writeInt(4);
+            output.writeInt(0);
+            output.writeInt(3);
+            output.writeInt(9);
+            output.writeInt(0);
+        }
+        EventLog log = EventLog.open(file.toPath());
+        assertEquals(1, log.getType(0));
+        try {
+            contest.solve(log, true);
+            fail("an event of type 3 was accepted");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().contains("type 3"));
+        }
+    }
+
+    @Test
+    public void accordingVGShouldRejectEventLogsTooLargeToMap() throws Exception {
+        File file = Files.createTempFile("silkroad", ".bin").toFile();
+        file.deleteOnExit();
+        try (RandomAccessFile sparse = new RandomAccessFile(file, "rw")) {
+            sparse.setLength(Integer.MAX_VALUE + 16L);
+        }
+        try {
+            EventLog.open(file.toPath());
+            fail("a log of more than 2 GB was mapped");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("too large"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes contest days in the text format read by {@link ContestReader}.
+     */
+    private static String text(int[][] events) {
+        StringBuilder text = new StringBuilder().append(events.length).append('\n');
+        for (int[] event : events) {
+            for (int value : event) {
+                text.append(value).append(' ');
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+}
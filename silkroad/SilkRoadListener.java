@@ -0,0 +1,51 @@
+/**
+ * The {@code SilkRoadListener} interface receives the events produced
+ * while a {@link SilkRoad} is simulated: robots moving, stores being
+ * collected, invalid operations and finished contest days.
+ *
+ * <p>Every method does nothing by default, so a listener only overrides
+ * the events it cares about. Listeners are called synchronously on the
+ * thread that changes the road; slow work such as writing to the console
+ * should be handed off, for example to a {@link SilkRoadLog}.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public interface SilkRoadListener
+{
+    /**
+     * Called after a robot moves.
+     *
+     * @param from   the location the robot left.
+     * @param to     the location the robot arrived at.
+     * @param tenges the robot's tenges after paying for the move and collecting.
+     */
+    default void robotMoved(int from, int to, int tenges){
+    }
+
+    /**
+     * Called when a robot empties a store.
+     *
+     * @param location the location of the store.
+     * @param tenges   the tenges collected from the store.
+     */
+    default void storeCollected(int location, int tenges){
+    }
+
+    /**
+     * Called when an operation on the road cannot be performed.
+     *
+     * @param message a short description of the failed operation.
+     */
+    default void error(String message){
+    }
+
+    /**
+     * Called when a contest day has been simulated.
+     *
+     * @param day    the index of the day, starting at 0.
+     * @param profit the total profit obtained that day.
+     */
+    default void dayCompleted(int day, int profit){
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+/**
+ * The {@code SilkRoadLog} class is a {@link SilkRoadListener} that writes
+ * every event as a line of text to an output stream without slowing down
+ * the simulation.
+ *
+ * <p>Events are stored as plain numbers in a fixed-size circular buffer;
+ * a background thread takes them in batches, formats them and writes them
+ * through a buffered writer. The simulation only waits when the buffer is
+ * full. Call {@link #close()} to write the remaining events.</p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class SilkRoadLog implements SilkRoadListener
+{
+    private static final int MOVE = 0;
+    private static final int COLLECT = 1;
+    private static final int ERROR = 2;
+    private static final int DAY = 3;
+
+    private int capacity;
+    private int[] kinds;
+    private int[] first;
+    private int[] second;
+    private int[] third;
+    private String[] messages;
+    private int head;
+    private int size;
+    private boolean closed;
+    private Writer out;
+    private Thread writer;
+
+    /**
+     * Creates a {@code SilkRoadLog} that writes to the given stream.
+     *
+     * @param stream the stream that receives one line per event.
+     */
+    public SilkRoadLog(OutputStream stream){
+        this(stream, 8192);
+    }
+
+    /**
+     * Creates a {@code SilkRoadLog} that writes to the given stream,
+     * buffering up to {@code capacity} pending events.
+     *
+     * @param stream   the stream that receives one line per event.
+     * @param capacity the number of events that can wait to be written.
+     */
+    public SilkRoadLog(OutputStream stream, int capacity){
+        this.capacity = capacity;
+        kinds = new int[capacity];
+        first = new int[capacity];
+        second = new int[capacity];
+        third = new int[capacity];
+        messages = new String[capacity];
+        out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+        writer = new Thread(this::write, "silkroad-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void robotMoved(int from, int to, int tenges){
+        publish(MOVE, from, to, tenges, null);
+    }
+
+    @Override
+    public void storeCollected(int location, int tenges){
+        publish(COLLECT, location, tenges, 0, null);
+    }
+
+    @Override
+    public void error(String message){
+        publish(ERROR, 0, 0, 0, message);
+    }
+
+    @Override
+    public void dayCompleted(int day, int profit){
+        publish(DAY, day, profit, 0, null);
+    }
+
+    /**
+     * Writes the pending events, stops the background thread and
+     * flushes the stream. Events published afterwards are ignored.
+     */
+    public void close(){
+        synchronized (this){
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds an event to the buffer, waiting while it is full.
+     */
+    private synchronized void publish(int kind, int a, int b, int c, String message){
+        while (size == capacity && !closed){
+            try {
+                wait();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (closed) return;
+        int slot = (head + size) % capacity;
+        kinds[slot] = kind;
+        first[slot] = a;
+        second[slot] = b;
+        third[slot] = c;
+        messages[slot] = message;
+        size++;
+        if (size == 1) notifyAll();
+    }
+
+    /**
+     * Body of the background thread: takes batches of events out of the
+     * buffer and writes them until the log is closed and empty.
+     */
+    private void write(){
+        int[] batchKinds = new int[capacity];
+        int[] batchFirst = new int[capacity];
+        int[] batchSecond = new int[capacity];
+        int[] batchThird = new int[capacity];
+        String[] batchMessages = new String[capacity];
+        StringBuilder line = new StringBuilder();
+        while (true){
+            int count;
+            synchronized (this){
+                while (size == 0 && !closed){
+                    try {
+                        wait();
+                    } catch (InterruptedException e){
+                        closed = true;
+                    }
+                }
+                if (size == 0) break;
+                count = size;
+                for (int i = 0; i < count; i++){
+                    int slot = (head + i) % capacity;
+                    batchKinds[i] = kinds[slot];
+                    batchFirst[i] = first[slot];
+                    batchSecond[i] = second[slot];
+                    batchThird[i] = third[slot];
+                    batchMessages[i] = messages[slot];
+                    messages[slot] = null;
+                }
+                head = (head + count) % capacity;
+                size = 0;
+                notifyAll();
+            }
+            try {
+                for (int i = 0; i < count; i++){
+                    line.setLength(0);
+                    format(line, batchKinds[i], batchFirst[i], batchSecond[i], batchThird[i], batchMessages[i]);
+                    out.append(line).append('\n');
+                }
+                boolean idle;
+                synchronized (this){
+                    idle = size == 0;
+                }
+                if (idle) out.flush();
+            } catch (IOException e){
+                synchronized (this){
+                    closed = true;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+        try {
+            out.flush();
+        } catch (IOException e){
+            // nothing left to report the failure to
+        }
+    }
+
+    /**
+     * Appends the text of one event to a line.
+     */
+    private void format(StringBuilder line, int kind, int a, int b, int c, String message){
+        if (kind == MOVE){
+            line.append("move ").append(a).append(" -> ").append(b).append(" tenges ").append(c);
+        } else if (kind == COLLECT){
+            line.append("collect ").append(a).append(" tenges ").append(b);
+        } else if (kind == ERROR){
+            line.append(message);
+        } else {
+            line.append("day ").append(a).append(" profit ").append(b);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import Shapes.Canvas;
+/**
+ * The {@code SilkRoadPlayer} class plays a Silk Road contest back on the
+ * canvas, one day per tick, with pause, step and seek controls.
+ * <p>
+ * Three background threads share the work:
+ * <ul>
+ *   <li>the simulation thread plays the days on a {@link SilkRoad} as fast
+ *   as it can and keeps an immutable {@link RoadSnapshot} of each one;</li>
+ *   <li>the playback thread ticks at a configurable rate and moves the
+ *   playback position forward one day per tick;</li>
+ *   <li>the render thread draws the snapshot at the playback position.</li>
+ * </ul>
+ * The render thread only ever draws the latest position: when drawing a day
+ * takes longer than a tick, the days in between are skipped instead of
+ * piling up. Playback never runs ahead of the simulation.
+ * </p>
+ * <p>
+ * Listeners are told about moves, errors and finished days on the
+ * simulation thread, usually well before the day is shown. Every snapshot
+ * is kept so any day can be sought, so the player is meant for contests
+ * small enough to watch.
+ * </p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class SilkRoadPlayer
+{
+    private int[][] days;
+    private SilkRoad road;
+    private List<SilkRoadListener> listeners;
+    private AtomicReferenceArray<RoadSnapshot> snapshots;
+    private volatile int produced;
+    private AtomicInteger position;
+    private volatile boolean paused;
+    private volatile long tickMillis;
+    private AtomicInteger pendingRenders;
+    private AtomicInteger skippedFrames;
+    private volatile RoadSnapshot shown;
+    private SpiralRoad spiral;
+    private Store[] storeViews;
+    private Robot[] robotViews;
+    private ExecutorService simulation;
+    private ScheduledExecutorService playback;
+    private ExecutorService renderer;
+    private ScheduledFuture<?> ticking;
+
+    /**
+     * Creates a player for a contest. Nothing runs until {@link #start()}.
+     *
+     * @param days      a 2D integer array representing daily actions (robots or stores).
+     * @param listeners the listeners to register on the simulated road.
+     */
+    public SilkRoadPlayer(int[][] days, List<SilkRoadListener> listeners){
+        this.days = days;
+        this.listeners = new ArrayList<>(listeners);
+        road = new SilkRoad(SilkRoad.maxLocation(days));
+        for (SilkRoadListener listener: listeners){
+            road.addListener(listener);
+        }
+        snapshots = new AtomicReferenceArray<>(days.length);
+        position = new AtomicInteger();
+        pendingRenders = new AtomicInteger();
+        skippedFrames = new AtomicInteger();
+        tickMillis = 10000;
+        simulation = Executors.newSingleThreadExecutor(named("silkroad-simulation"));
+        playback = Executors.newSingleThreadScheduledExecutor(named("silkroad-playback"));
+        renderer = Executors.newSingleThreadExecutor(named("silkroad-render"));
+    }
+
+    /**
+     * Returns a factory of daemon threads with the given name.
+     */
+    private static ThreadFactory named(String name){
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Starts simulating the days and playing them back. The first day is
+     * shown as soon as it has been simulated.
+     */
+    public void start(){
+        simulation.execute(this::simulate);
+        schedule();
+    }
+
+    /**
+     * Stops every thread of the player. The canvas keeps the last day drawn.
+     */
+    public void stop(){
+        simulation.shutdownNow();
+        playback.shutdownNow();
+        renderer.shutdown();
+    }
+
+    /**
+     * Changes the time between two ticks of the playback.
+     *
+     * @param milliseconds the time each day is shown for; must be positive.
+     */
+    public synchronized void setTickMillis(long milliseconds){
+        if (milliseconds <= 0) throw new IllegalArgumentException("tick must be positive");
+        tickMillis = milliseconds;
+        if (ticking != null) schedule();
+    }
+
+    /**
+     * Stops the playback from moving forward on its own.
+     */
+    public void pause(){
+        paused = true;
+    }
+
+    /**
+     * Lets the playback move forward one day per tick again.
+     */
+    public void resume(){
+        paused = false;
+    }
+
+    /**
+     * Shows the next day, whether or not the playback is paused.
+     */
+    public void step(){
+        position.updateAndGet(day -> Math.max(0, Math.min(day + 1, days.length - 1)));
+        requestRender();
+    }
+
+    /**
+     * Shows the given day. When the day has not been simulated yet, it is
+     * shown as soon as it is.
+     *
+     * @param day the index of the day, starting at 0.
+     */
+    public void seek(int day){
+        position.set(Math.max(0, Math.min(day, days.length - 1)));
+        requestRender();
+    }
+
+    /**
+     * Returns the day currently drawn on the canvas.
+     *
+     * @return the snapshot of the day, or {@code null} if nothing was drawn yet.
+     */
+    public RoadSnapshot getShown(){
+        return shown;
+    }
+
+    /**
+     * Returns the snapshot of a day that has already been simulated.
+     *
+     * @param day the index of the day, starting at 0.
+     * @return the snapshot of the day, or {@code null} if it is not ready yet.
+     */
+    public RoadSnapshot getSnapshot(int day){
+        return snapshots.get(day);
+    }
+
+    /**
+     * Returns the number of frames skipped because drawing fell behind
+     * the playback.
+     *
+     * @return the number of requested frames that were never drawn.
+     */
+    public int getSkippedFrames(){
+        return skippedFrames.get();
+    }
+
+    /**
+     * (Re)starts the ticks of the playback with the current tick time.
+     */
+    private synchronized void schedule(){
+        if (ticking != null) ticking.cancel(false);
+        ticking = playback.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Moves the playback one day forward unless it is paused or would get
+     * ahead of the simulation. The position is moved in a single atomic
+     * update, so a seek made at the same time is never lost.
+     */
+    private void tick(){
+        if (paused) return;
+        int ready = produced;
+        if (position.getAndUpdate(day -> day < ready - 1 ? day + 1 : day) < ready - 1){
+            requestRender();
+        }
+    }
+
+    /**
+     * Body of the simulation thread: plays every day and keeps its snapshot.
+     */
+    private void simulate(){
+        for (int day = 0; day < days.length && !Thread.currentThread().isInterrupted(); day++){
+            int[] elem = days[day];
+            road.reboot();
+            if (elem[0] == 2){
+                road.pleaseStore(elem[1], elem[2]);
+            } else road.pleaseRobot(elem[1]);
+            road.moveRobots();
+            RoadSnapshot snapshot = road.snapshot(day);
+            snapshots.set(day, snapshot);
+            produced = day + 1;
+            for (SilkRoadListener listener: listeners){
+                listener.dayCompleted(day, snapshot.getProfit());
+            }
+            if (day <= position.get()) requestRender();
+        }
+    }
+
+    /**
+     * Asks the render thread to draw the current position. Requests made
+     * while a drawing is in progress are merged into a single one, and
+     * requests made after {@link #stop()} are ignored.
+     */
+    private void requestRender(){
+        if (pendingRenders.getAndIncrement() == 0) submitRender();
+    }
+
+    /**
+     * Hands a drawing to the render thread, dropping the pending requests
+     * if the player has been stopped.
+     */
+    private void submitRender(){
+        try {
+            renderer.execute(this::render);
+        } catch (RejectedExecutionException e){
+            pendingRenders.set(0);
+        }
+    }
+
+    /**
+     * Body of the render thread: draws the latest position that has been
+     * simulated, then runs again if more requests arrived meanwhile. The
+     * merged requests only count as skipped frames when a day was drawn.
+     */
+    private void render(){
+        int requests = pendingRenders.get();
+        int ready = produced;
+        if (ready > 0){
+            RoadSnapshot snapshot = snapshots.get(Math.min(position.get(), ready - 1));
+            if (snapshot != shown){
+                draw(snapshot);
+                skippedFrames.addAndGet(requests - 1);
+            }
+        }
+        if (pendingRenders.addAndGet(-requests) > 0) submitRender();
+    }
+
+    /**
+     * Replaces the drawing of the previous day with a snapshot, repainting
+     * the canvas once.
+     */
+    private void draw(RoadSnapshot snapshot){
+        Canvas canvas = Canvas.getCanvas();
+        canvas.beginFrame();
+        try {
+            if (spiral == null){
+                spiral = new SpiralRoad(snapshot.getCells());
+                spiral.makeVisible();
+            }
+            if (storeViews != null){
+                for (Store view: storeViews) view.makeInvisible();
+                for (Robot view: robotViews) view.makeInvisible();
+            }
+            storeViews = new Store[snapshot.getStores()];
+            robotViews = new Robot[snapshot.getRobots()];
+            for (int i = 0; i < storeViews.length; i++){
+                storeViews[i] = snapshot.createStore(spiral, i);
+                storeViews[i].makeVisible();
+            }
+            for (int i = 0; i < robotViews.length; i++){
+                robotViews[i] = snapshot.createRobot(spiral, i);
+                robotViews[i].makeVisible();
+            }
+        } finally {
+            canvas.endFrame();
+        }
+        shown = snapshot;
+    }
+}
@@ -10,154 +10,202 @@ import java.util.*;
  * The spiral length is determined by the number of rectangles specified. 
  * Each rectangle has a fixed size of 10x10.
  * 
+ * The coordinates of any cell are computed directly from its index, so
+ * building a road costs nothing regardless of its length. Rectangles are
+ * only created when the road is drawn or requested.
+ * 
+ * The road is drawn as a {@link CellLayer} on the background of the canvas:
+ * it is painted once and not again each time a robot or store changes, and
+ * only the cells inside the canvas viewport are painted. The index of the
+ * cell under any point is also computed directly, so finding the visible
+ * cells costs nothing per cell that is off-screen.
+ * 
  * The road can be made visible or invisible on the canvas, 
  * and all its rectangles can be retrieved as an array.
  * 
  * @author Brayan Valdes - Yan Guerra
- * @version 07/09/2025
+ * @version 18/10/2026
  */
-public class SpiralRoad
+public class SpiralRoad implements CellLayer
 {
     private int length;
-    private int numberRectangles;
     private Rectangle[] rectangles;
+    private boolean isVisible;
     private static final int xStart = 500;
     private static final int yStart = 300;
+    private static final int side = 10;
     
     /**
      * Creates a {@code SpiralRoad} with the specified length.
-     * The road is automatically generated in a spiral pattern.
+     * No rectangle is created until the road is drawn.
      *
      * @param length the number of rectangles in the spiral.
      */
     public SpiralRoad(int length){
         this.length = length;
-        numberRectangles = 0;
-        rectangles = new Rectangle[length];
-        createSpiral();
     }
-    
+
     /**
-     * Builds the spiral moving to the right and adding rectangles.
+     * Returns the turn of the spiral that contains a cell.
+     * <p>
+     * Turn {@code c} moves right and down {@code 3 + 4c} cells each and then
+     * left and up {@code 5 + 4c} cells each, so it holds {@code 16(c + 1)}
+     * cells and the first {@code 8c(c + 1)} cells belong to earlier turns.
+     * </p>
      *
-     * @param x   the starting x-coordinate.
-     * @param y   the y-coordinate.
-     * @param end the distance to move in this direction.
+     * @param index the zero-based index of the cell.
+     * @return the zero-based turn of the cell.
      */
-    private void right(int x,int y, int end){
-        for (int i = x; i < (x+end); i+=10){
-            addRectangle(i,y);
-            numberRectangles += 1;
-        }
+    private static int turn(int index){
+        int turn = (int) ((Math.sqrt(1 + index / 2.0) - 1) / 2);
+        while (8L * (turn + 1) * (turn + 2) <= index) turn++;
+        while (8L * turn * (turn + 1) > index) turn--;
+        return turn;
     }
-    
+
     /**
-     * Builds the spiral moving downward and adding rectangles.
+     * Returns the x-coordinate of the cell at the given index.
      *
-     * @param x   the x-coordinate.
-     * @param y   the starting y-coordinate.
-     * @param end the distance to move in this direction.
+     * @param index the zero-based index of the cell in the spiral.
+     * @return the x-coordinate of the cell.
      */
-    private void down(int x, int y, int end){
-        for (int j = y; j < (y+end); j+=10){
-            addRectangle(x,j);
-            numberRectangles += 1;
-        }
+    public int getXPosition(int index){
+        int turn = turn(index);
+        int step = (int) (index - 8L * turn * (turn + 1));
+        int run = 3 + 4 * turn;
+        int x = xStart - 2 * side * turn;
+        if (step < run) return x + side * step;
+        step -= run;
+        if (step < run) return x + side * (run - 1);
+        step -= run;
+        if (step < run + 2) return x + side * (run - 2) - side * step;
+        return x - 3 * side;
     }
-    
+
     /**
-     * Builds the spiral moving to the left and adding rectangles.
+     * Returns the y-coordinate of the cell at the given index.
      *
-     * @param x   the starting x-coordinate.
-     * @param y   the y-coordinate.
-     * @param end the distance to move in this direction.
+     * @param index the zero-based index of the cell in the spiral.
+     * @return the y-coordinate of the cell.
      */
-    private void left(int x, int y, int end){
-        for (int i = x; i >= (x - end); i-=10){
-            addRectangle(i,y);
-            numberRectangles += 1;
-        }
+    public int getYPosition(int index){
+        int turn = turn(index);
+        int step = (int) (index - 8L * turn * (turn + 1));
+        int run = 3 + 4 * turn;
+        int y = yStart - 2 * side * turn;
+        if (step < run) return y;
+        step -= run;
+        if (step < run) return y + side + side * step;
+        step -= run;
+        if (step < run + 2) return y + side * run;
+        step -= run + 2;
+        return y + side * run - side - side * step;
     }
-    
+
     /**
-     * Builds the spiral moving upward and adding rectangles.
+     * Returns the index of the cell that contains a point.
+     * <p>
+     * Turn {@code c} covers the row {@code -2c} and the column {@code 2c + 2},
+     * then the row {@code 2c + 3} and the column {@code -2c - 3}, counted in
+     * cells from the starting point, so the side of the spiral a point lies
+     * on tells its turn and its position along that turn.
+     * </p>
      *
-     * @param x   the x-coordinate.
-     * @param y   the starting y-coordinate.
-     * @param end the distance to move in this direction.
+     * @param x the x-coordinate of the point.
+     * @param y the y-coordinate of the point.
+     * @return the zero-based index of the cell, or -1 if the point is not on the road.
      */
-    private void up(int x, int y, int end){
-        for (int j = y; j >= (y - end); j -=10){
-            addRectangle(x,j);
-            numberRectangles += 1;
+    public int getIndex(int x, int y){
+        long column = Math.floorDiv(x - xStart, side);
+        long row = Math.floorDiv(y - yStart, side);
+        long index = -1;
+        if (row <= 0 && row % 2 == 0 && column >= row && column <= 2 - row){
+            long turn = -row / 2;
+            index = 8 * turn * (turn + 1) + column + 2 * turn;
+        } else if (column >= 2 && column % 2 == 0 && row >= 3 - column && row <= column + 1){
+            long turn = (column - 2) / 2;
+            index = 8 * turn * (turn + 1) + (3 + 4 * turn) + row + 2 * turn - 1;
+        } else if (row >= 3 && row % 2 != 0 && column >= -row && column <= row - 2){
+            long turn = (row - 3) / 2;
+            index = 8 * turn * (turn + 1) + 2 * (3 + 4 * turn) + 2 * turn + 1 - column;
+        } else if (column <= -3 && column % 2 != 0 && row >= column + 1 && row <= -column - 1){
+            long turn = (-column - 3) / 2;
+            index = 8 * turn * (turn + 1) + 3 * (3 + 4 * turn) + 2 + 2 * turn + 2 - row;
         }
+        return index < length ? (int) index : -1;
     }
-    
+
+    @Override
+    public int getCellSize(){
+        return side;
+    }
+
+    @Override
+    public java.awt.Rectangle getCellBounds(){
+        if (length == 0) return new java.awt.Rectangle();
+        int turn = turn(length - 1);
+        return new java.awt.Rectangle(xStart / side - 2 * turn - 3, yStart / side - 2 * turn - 2,
+                                      4 * turn + 6, 4 * turn + 6);
+    }
+
+    @Override
+    public String getCellColor(int column, int row){
+        return getIndex(column * side, row * side) >= 0 ? "yellow" : null;
+    }
+
     /**
-     * Adds a rectangle to the spiral at the given coordinates,
-     * if the maximum length has not been reached.
+     * Returns the rectangle of a single cell, creating it on first use.
      *
-     * @param x the x-coordinate of the rectangle.
-     * @param y the y-coordinate of the rectangle.
+     * @param index the zero-based index of the cell in the spiral.
+     * @return the {@code Rectangle} that draws the cell.
      */
-    private void addRectangle(int x, int y){
-        if (numberRectangles < length){
-            Rectangle rectangle = new Rectangle(10,10,"yellow", x, y);
-            rectangles[numberRectangles] = rectangle;
+    public Rectangle getRectangle(int index){
+        if (rectangles == null) rectangles = new Rectangle[length];
+        if (rectangles[index] == null){
+            rectangles[index] = new Rectangle(side, side, "yellow", getXPosition(index), getYPosition(index));
+            rectangles[index].setBackground(true);
         }
+        return rectangles[index];
     }
-    
+
     /**
-     * Creates the full spiral by repeatedly moving right, down,
-     * left, and up, expanding the distance after each cycle.
+     * Creates the rectangles of every cell of the spiral that
+     * has not been created yet.
      */
     public void createSpiral(){
-        int newX = xStart;
-        int newY = yStart;
-        int end = 30;
-        while (numberRectangles < length){
-            right(newX, newY, end);
-            newX += (end-10);
-            newY +=10;        
-            down(newX, newY, end);
-            newY += (end-10);
-            end += 10;
-            newX -=10;
-            left(newX, newY, end);
-            newX = newX - end;
-            newY -= 10; 
-            up(newX, newY, end);
-            newY = newY-end;
-            newX+=10;
-            end+=30;
+        if (rectangles == null) rectangles = new Rectangle[length];
+        for (int i = 0; i < length; i++){
+            getRectangle(i);
         }
     }
-    
+
     /**
-     * Returns the array of rectangles that make up the spiral road.
+     * Returns the array of rectangles that make up the spiral road,
+     * creating them on first use.
      *
      * @return an array of {@code Rectangle} objects.
      */
     public Rectangle[] getArrRectangles(){
+        createSpiral();
         return rectangles;
     }
-    
+
     /**
-     * Makes the spiral road visible on the canvas by displaying all rectangles.
+     * Makes the spiral road visible on the canvas. The cells are painted
+     * by the canvas itself, so no rectangle is created.
      */
     public void makeVisible(){
-        for (int i = 0; i < length; i++){
-            rectangles[i].makeVisible();
-        }
+        isVisible = true;
+        Canvas.getCanvas().drawCells(this, this);
     }
-    
+
     /**
-     * Makes the spiral road invisible on the canvas by hiding all rectangles.
+     * Makes the spiral road invisible on the canvas.
      */
     public void makeInvisible(){
-        for (int i = 0; i < length; i ++){
-            rectangles[i].makeInvisible();
-        }
+        if (!isVisible) return;
+        Canvas.getCanvas().erase(this);
+        isVisible = false;
     }
-    
-}
\ No newline at end of file
+
+}
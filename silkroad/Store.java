@@ -22,9 +22,14 @@ public class Store
     private int initialTenges;
     private int actualTenges;
     private int times;
+    private boolean isEmpty;
 
     /**
      * Creates a {@code Store} object at the specified position.
+     * <p>
+     * The wall and roof are only built the first time the store is made
+     * visible.
+     * </p>
      *
      * @param x      the x-coordinate of the store.
      * @param y      the y-coordinate of the store.
@@ -36,12 +41,17 @@ public class Store
         yPoint = y;
         initialTenges = tenges;
         actualTenges = tenges;
-        
-        int roofY = (y-size);
-        int roofX = (int)(x+(0.5*size));
-        wall = new Rectangle(size, size, "blue",x, y);
-        roof = new Triangle(roofX, roofY, "green", size, size);
-        
+    }
+    
+    /**
+     * Creates the store's graphical components (wall and roof),
+     * colored according to whether the store has been emptied.
+     */
+    private void createStore(){
+        int roofY = (yPoint-size);
+        int roofX = (int)(xPoint+(0.5*size));
+        wall = new Rectangle(size, size, isEmpty ? "orange" : "blue", xPoint, yPoint);
+        roof = new Triangle(roofX, roofY, isEmpty ? "red" : "green", size, size);
     }
     
     /**
@@ -49,7 +59,7 @@ public class Store
      * its wall and roof.
      */
     public void makeVisible(){
-        
+        if (wall == null) createStore();
         roof.makeVisible();
         wall.makeVisible();
         
@@ -60,7 +70,7 @@ public class Store
      * its wall and roof.
      */
     public void makeInvisible(){
-        
+        if (wall == null) return;
         roof.makeInvisible();
         wall.makeInvisible();
         
@@ -81,6 +91,8 @@ public class Store
      */
     public void removeTenges(){
         actualTenges = 0;
+        isEmpty = true;
+        if (wall == null) return;
         roof.changeColor("red");
         wall.changeColor("orange");
     }
@@ -117,6 +129,8 @@ public class Store
      */
     public void rebootStore(){
         actualTenges = initialTenges;
+        isEmpty = false;
+        if (wall == null) return;
         wall.changeColor("blue");
         roof.changeColor("green");
     }
@@ -0,0 +1,225 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+/**
+ * The {@code SilkRoadWorkloads} class prepares the operations measured by
+ * the benchmarks in the {@code benchmarks} package.
+ * <p>
+ * JMH only accepts benchmarks in a named package, and a named package
+ * cannot refer to the classes of the default package. Each method here
+ * builds its input once and returns the operation as an
+ * {@link IntSupplier}, a JDK type the benchmarks can call directly; the
+ * result of the operation is returned so that it is not optimized away.
+ * </p>
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+public class SilkRoadWorkloads
+{
+    /**
+     * Returns random contest days over locations {@code 1..length}.
+     *
+     * @param events the number of days.
+     * @param length the largest location.
+     * @param seed   the seed of the random generator.
+     * @return the days, half robots and half stores on average.
+     */
+    public static int[][] days(int events, int length, long seed){
+        Random random = new Random(seed);
+        int[][] days = new int[events][];
+        for (int i = 0; i < events; i++){
+            int position = 1 + random.nextInt(length);
+            days[i] = random.nextBoolean() ? new int[]{1, position} : new int[]{2, position, random.nextInt(1000)};
+        }
+        return days;
+    }
+
+    /**
+     * Solves a random contest.
+     *
+     * @param events  the number of days of the contest.
+     * @param optimal whether to report the optimal or the greedy profit.
+     * @return the operation, which returns the profit of the last day.
+     */
+    public static IntSupplier solve(int events, boolean optimal){
+        int[][] days = days(events, 10 * events, 1);
+        SilkRoadContest contest = new SilkRoadContest();
+        return () -> {
+            ArrayList<Integer> profit = contest.solve(days, optimal);
+            return profit.get(profit.size() - 1);
+        };
+    }
+
+    /**
+     * Solves a random contest from a memory-mapped binary event log.
+     *
+     * @param events  the number of days of the contest.
+     * @param optimal whether to report the optimal or the greedy profit.
+     * @return the operation, which returns the profit of the last day.
+     */
+    public static IntSupplier solveLog(int events, boolean optimal){
+        StringBuilder text = new StringBuilder().append(events).append('\n');
+        for (int[] elem: days(events, 10 * events, 1)){
+            for (int value: elem) text.append(value).append(' ');
+            text.append('\n');
+        }
+        try {
+            Path file = Files.createTempFile("silkroad", ".bin");
+            file.toFile().deleteOnExit();
+            EventLog.write(new ContestReader(new ByteArrayInputStream(text.toString().getBytes())), file);
+            EventLog log = EventLog.open(file);
+            SilkRoadContest contest = new SilkRoadContest();
+            return () -> {
+                ArrayList<Integer> profit = contest.solve(log, optimal);
+                return profit.get(profit.size() - 1);
+            };
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Solves a batch of random contests in parallel on a pool of a given 
+     * size.
+     *
+     * @param contests the number of contests.
+     * @param events   the number of days of each contest.
+     * @param threads  the number of threads of the pool, or {@code 0} for 
+     *                 one per available processor.
+     * @return two operations: the first solves the batch and returns the 
+     *         number of contests solved, the second shuts the pool down 
+     *         and must run once the measurements are done.
+     */
+    public static IntSupplier[] solveAll(int contests, int events, int threads){
+        List<int[][]> batch = new ArrayList<>();
+        for (int c = 0; c < contests; c++){
+            batch.add(days(events, 10 * events, c));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        IntSupplier solve = () -> SilkRoadContest.solveAll(batch, false, pool).size();
+        IntSupplier shutdown = () -> {
+            pool.shutdown();
+            return 0;
+        };
+        return new IntSupplier[]{solve, shutdown};
+    }
+
+    /**
+     * Moves the robots of a road full of robots and stores, rebooting it
+     * first so that every call does the same work.
+     *
+     * @param entities the number of robots and stores on the road.
+     * @return the operation, which returns the profit of the move.
+     */
+    public static IntSupplier moveRobots(int entities){
+        SilkRoad road = new SilkRoad(days(entities, 10 * entities, 2));
+        return () -> {
+            road.reboot();
+            road.moveRobots();
+            return road.profit();
+        };
+    }
+
+    /**
+     * Moves the robots of a road full of robots and stores in parallel on 
+     * the common pool, rebooting it first so that every call does the same 
+     * work.
+     *
+     * @param entities the number of robots and stores on the road.
+     * @return the operation, which returns the profit of the move.
+     */
+    public static IntSupplier moveRobotsParallel(int entities){
+        SilkRoad road = new SilkRoad(days(entities, 10 * entities, 2));
+        return () -> {
+            road.reboot();
+            road.moveRobots(ForkJoinPool.commonPool());
+            return road.profit();
+        };
+    }
+
+    /**
+     * Reboots a road full of robots and stores after a day of moves.
+     *
+     * @param entities the number of robots and stores on the road.
+     * @return the operation, which returns the number of robots.
+     */
+    public static IntSupplier reboot(int entities){
+        SilkRoad road = new SilkRoad(days(entities, 10 * entities, 3));
+        road.moveRobots();
+        return () -> {
+            road.reboot();
+            return road.robots().size();
+        };
+    }
+
+    /**
+     * Removes every store of a road full of robots and stores in one bulk 
+     * call.
+     *
+     * @param entities the number of stores, and of robots, on the road.
+     * @return two operations: the first puts the stores back and must run 
+     *         before each measured call, the second removes them all and 
+     *         returns the number of stores left.
+     */
+    public static IntSupplier[] removeStores(int entities){
+        SilkRoad road = new SilkRoad(2 * entities + 1);
+        int[] locations = new int[entities];
+        for (int i = 0; i < entities; i++){
+            locations[i] = 2 * i + 2;
+            road.pleaseRobot(2 * i + 1);
+        }
+        IntSupplier refill = () -> {
+            for (int i = 0; i < entities; i++) road.pleaseStore(locations[i], i);
+            return road.stores().size();
+        };
+        IntSupplier remove = () -> {
+            road.removeStores(locations);
+            return road.stores().size();
+        };
+        return new IntSupplier[]{refill, remove};
+    }
+
+    /**
+     * Removes every robot of a road full of robots and stores in one bulk 
+     * call.
+     *
+     * @param entities the number of robots, and of stores, on the road.
+     * @return two operations: the first puts the robots back and must run 
+     *         before each measured call, the second removes them all and 
+     *         returns the number of robots left.
+     */
+    public static IntSupplier[] removeRobots(int entities){
+        SilkRoad road = new SilkRoad(2 * entities + 1);
+        int[] locations = new int[entities];
+        for (int i = 0; i < entities; i++){
+            locations[i] = 2 * i + 1;
+            road.pleaseStore(2 * i + 2, i);
+        }
+        IntSupplier refill = () -> {
+            for (int location: locations) road.pleaseRobot(location);
+            return road.robots().size();
+        };
+        IntSupplier remove = () -> {
+            road.removeRobots(locations);
+            return road.robots().size();
+        };
+        return new IntSupplier[]{refill, remove};
+    }
+
+    /**
+     * Builds a spiral road and the rectangles of all its cells.
+     *
+     * @param cells the number of cells of the spiral.
+     * @return the operation, which returns the x-coordinate of the last cell.
+     */
+    public static IntSupplier spiral(int cells){
+        return () -> {
+            SpiralRoad spiral = new SpiralRoad(cells);
+            Shapes.Rectangle[] rectangles = spiral.getArrRectangles();
+            return rectangles[cells - 1].getXPosition();
+        };
+    }
+}
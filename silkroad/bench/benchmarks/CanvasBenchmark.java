@@ -0,0 +1,68 @@
+package benchmarks;
+
+import Shapes.Canvas;
+import Shapes.Rectangle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of a canvas repaint with N shapes on it: one foreground
+ * rectangle changes colour, which repaints the whole canvas. With
+ * background set, the N shapes sit on the cached background layer.
+ *
+ * Runs headless, so no display is needed.
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class CanvasBenchmark{
+
+    @Param({"100", "1000", "10000"})
+    public int shapes;
+
+    @Param({"false", "true"})
+    public boolean background;
+
+    private Canvas canvas;
+    private Rectangle[] rectangles;
+    private Rectangle moving;
+    private boolean red;
+
+    @Setup
+    public void setUp(){
+        canvas = Canvas.getCanvas();
+        rectangles = new Rectangle[shapes];
+        canvas.beginFrame();
+        for(int i = 0; i < shapes; i++) {
+            rectangles[i] = new Rectangle(5, 5, "yellow", 7 * (i % 140), 7 * (i / 140 % 100));
+            rectangles[i].makeVisible();
+            rectangles[i].setBackground(background);
+        }
+        moving = new Rectangle(20, 20, "red", 490, 340);
+        moving.makeVisible();
+        canvas.endFrame();
+    }
+
+    @TearDown
+    public void tearDown(){
+        canvas.beginFrame();
+        for(Rectangle rectangle : rectangles) {
+            rectangle.makeInvisible();
+        }
+        moving.makeInvisible();
+        canvas.endFrame();
+    }
+
+    @Benchmark
+    public int redraw(){
+        red = !red;
+        moving.changeColor(red ? "red" : "blue");
+        return moving.getXPosition();
+    }
+}
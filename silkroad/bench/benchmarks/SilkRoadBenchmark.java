@@ -0,0 +1,213 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the simulation: solving contests, moving robots, rebooting
+ * roads, removing entities in bulk and building spirals, at several sizes.
+ *
+ * The operations are prepared by SilkRoadWorkloads, in the default
+ * package, and looked up by name once per trial; the benchmark methods
+ * only call the returned IntSupplier. Run with -prof gc to also report
+ * the allocation rate of each operation.
+ *
+ * solveAll runs on pools of 1, 2 and 4 threads and on one thread per
+ * available processor (threads = 0), so its scaling can be read from the
+ * results of a machine with enough cores.
+ *
+ * @author Brayan Valdes - Yan Guerra
+ * @version 18/10/2026
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SilkRoadBenchmark{
+
+    /**
+     * Return an operation prepared by SilkRoadWorkloads.
+     * @param name       the name of the SilkRoadWorkloads method
+     * @param arguments  the arguments of the method
+     */
+    static IntSupplier workload(String name, Object... arguments){
+        return (IntSupplier) prepare(name, arguments);
+    }
+
+    /**
+     * Return the operations prepared by a SilkRoadWorkloads method that
+     * returns more than one.
+     * @param name       the name of the SilkRoadWorkloads method
+     * @param arguments  the arguments of the method
+     */
+    static IntSupplier[] workloads(String name, Object... arguments){
+        return (IntSupplier[]) prepare(name, arguments);
+    }
+
+    /**
+     * Call a SilkRoadWorkloads method by name.
+     * @param name       the name of the SilkRoadWorkloads method
+     * @param arguments  the arguments of the method
+     */
+    private static Object prepare(String name, Object... arguments){
+        try{
+            for(Method method : Class.forName("SilkRoadWorkloads").getMethods()) {
+                if(method.getName().equals(name)
+                   && method.getParameterCount() == arguments.length) {
+                    return method.invoke(null, arguments);
+                }
+            }
+        } catch (ReflectiveOperationException e){
+            throw new IllegalStateException("cannot prepare " + name, e);
+        }
+        throw new IllegalArgumentException("no workload " + name);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Greedy{
+        @Param({"100", "1000"})
+        public int events;
+        IntSupplier solve;
+
+        @Setup
+        public void setUp(){
+            solve = workload("solve", events, false);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Optimal{
+        @Param({"1000", "100000"})
+        public int events;
+        IntSupplier solve;
+        IntSupplier solveLog;
+
+        @Setup
+        public void setUp(){
+            solve = workload("solve", events, true);
+            solveLog = workload("solveLog", events, true);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Batch{
+        @Param({"64"})
+        public int contests;
+        @Param({"200"})
+        public int events;
+        @Param({"1", "2", "4", "0"})
+        public int threads;
+        IntSupplier[] solveAll;
+
+        @Setup
+        public void setUp(){
+            solveAll = workloads("solveAll", contests, events, threads);
+        }
+
+        @TearDown
+        public void tearDown(){
+            solveAll[1].getAsInt();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Road{
+        @Param({"100", "1000", "10000"})
+        public int entities;
+        IntSupplier moveRobots;
+        IntSupplier moveRobotsParallel;
+        IntSupplier reboot;
+
+        @Setup
+        public void setUp(){
+            moveRobots = workload("moveRobots", entities);
+            moveRobotsParallel = workload("moveRobotsParallel", entities);
+            reboot = workload("reboot", entities);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Removal{
+        @Param({"100000"})
+        public int entities;
+        IntSupplier[] stores;
+        IntSupplier[] robots;
+
+        @Setup(Level.Trial)
+        public void setUp(){
+            stores = workloads("removeStores", entities);
+            robots = workloads("removeRobots", entities);
+        }
+
+        @Setup(Level.Invocation)
+        public void refill(){
+            stores[0].getAsInt();
+            robots[0].getAsInt();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Spiral{
+        @Param({"1000", "100000"})
+        public int cells;
+        IntSupplier spiral;
+
+        @Setup
+        public void setUp(){
+            spiral = workload("spiral", cells);
+        }
+    }
+
+    @Benchmark
+    public int solveGreedy(Greedy state){
+        return state.solve.getAsInt();
+    }
+
+    @Benchmark
+    public int solveOptimal(Optimal state){
+        return state.solve.getAsInt();
+    }
+
+    @Benchmark
+    public int solveOptimalFromLog(Optimal state){
+        return state.solveLog.getAsInt();
+    }
+
+    @Benchmark
+    public int solveAll(Batch state){
+        return state.solveAll[0].getAsInt();
+    }
+
+    @Benchmark
+    public int moveRobots(Road state){
+        return state.moveRobots.getAsInt();
+    }
+
+    @Benchmark
+    public int moveRobotsParallel(Road state){
+        return state.moveRobotsParallel.getAsInt();
+    }
+
+    @Benchmark
+    public int reboot(Road state){
+        return state.reboot.getAsInt();
+    }
+
+    @Benchmark
+    public int removeStores(Removal state){
+        return state.stores[1].getAsInt();
+    }
+
+    @Benchmark
+    public int removeRobots(Removal state){
+        return state.robots[1].getAsInt();
+    }
+
+    @Benchmark
+    public int spiralConstruction(Spiral state){
+        return state.spiral.getAsInt();
+    }
+}